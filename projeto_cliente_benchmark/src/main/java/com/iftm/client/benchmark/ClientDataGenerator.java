@@ -0,0 +1,85 @@
+package com.iftm.client.benchmark;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/*
+ * Gera clientes sintéticos e reprodutíveis (semente fixa) direto por JDBC em lote,
+ * para medir as consultas com volumes realistas (10 mil a 10 milhões de linhas).
+ *
+ * Também pode popular um banco H2 em arquivo fora dos benchmarks:
+ *   java -cp target/benchmarks.jar com.iftm.client.benchmark.ClientDataGenerator jdbc:h2:file:./data/clientdb 1000000
+ * (o schema precisa existir, por exemplo subindo a aplicação uma vez apontando para o arquivo)
+ */
+public class ClientDataGenerator {
+
+	private static final String[] FIRST_NAMES = { "Ana", "Bruno", "Carla", "Daniel", "Elisa", "Fábio", "Gabriela",
+			"Heitor", "Isabela", "João", "Karina", "Lucas", "Mariana", "Nicolas", "Olívia", "Paulo", "Quésia",
+			"Rafael", "Sofia", "Tiago", "Úrsula", "Vinícius", "Wagner", "Yasmin", "Zeca" };
+	private static final String[] LAST_NAMES = { "Almeida", "Barbosa", "Cardoso", "Conceição", "Dias", "Esteves",
+			"Ferreira", "Gonçalves", "Holanda", "Ibrahim", "Jesus", "Lima", "Moreira", "Nascimento", "Oliveira",
+			"Pereira", "Queiroz", "Ribeiro", "Santos", "Teixeira", "Uchoa", "Vieira", "Xavier" };
+	private static final int BATCH = 5000;
+	private static final Instant OLDEST_BIRTH = Instant.parse("1930-01-01T00:00:00Z");
+	private static final long BIRTH_RANGE_DAYS = 90 * 365;
+
+	private final JdbcTemplate jdbc;
+	private final Random random = new Random(42);
+
+	public ClientDataGenerator(DataSource dataSource) {
+		this.jdbc = new JdbcTemplate(dataSource);
+	}
+
+	/*
+	 * Insere count clientes depois do maior id existente e devolve o primeiro id gerado.
+	 * A sequence é reposicionada para que inserções pela aplicação não colidam.
+	 */
+	public long seed(int count) {
+		Long maxId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM tb_client", Long.class);
+		long firstId = maxId + 1;
+		for (int start = 0; start < count; start += BATCH) {
+			int size = Math.min(BATCH, count - start);
+			List<Object[]> rows = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				rows.add(row(firstId + start + i));
+			}
+			jdbc.batchUpdate("INSERT INTO tb_client (id, name, cpf, income, birth_date, children, version) VALUES (?, ?, ?, ?, ?, ?, 0)", rows);
+		}
+		jdbc.execute("ALTER SEQUENCE tb_client_seq RESTART WITH " + (firstId + count));
+		return firstId;
+	}
+
+	private Object[] row(long id) {
+		String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+				+ LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		String cpf = String.format("%011d", Math.floorMod(random.nextLong(), 100_000_000_000L));
+		double income = Math.round(1000.0 + random.nextDouble() * 19000.0);
+		Instant birthDate = OLDEST_BIRTH.plus(random.nextInt((int) BIRTH_RANGE_DAYS), ChronoUnit.DAYS);
+		int children = random.nextInt(5);
+		return new Object[] { id, name, cpf, income, Timestamp.from(birthDate), children };
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("uso: ClientDataGenerator <jdbc-url> <quantidade> [usuario] [senha]");
+			System.exit(1);
+		}
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(args[0],
+				args.length > 2 ? args[2] : "sa", args.length > 3 ? args[3] : "");
+		int count = Integer.parseInt(args[1]);
+		long started = System.nanoTime();
+		long firstId = new ClientDataGenerator(dataSource).seed(count);
+		System.out.printf("%d clientes inseridos a partir do id %d em %d ms%n", count, firstId,
+				(System.nanoTime() - started) / 1_000_000);
+	}
+}
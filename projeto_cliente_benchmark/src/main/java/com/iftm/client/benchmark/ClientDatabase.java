@@ -0,0 +1,53 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.DsclientApplication;
+
+/*
+ * Aplicação completa (sem servidor web) sobre o H2 em memória, com `clients` linhas
+ * geradas além das 12 do import.sql. Compartilhada por todos os threads de um benchmark.
+ */
+@State(Scope.Benchmark)
+public class ClientDatabase {
+
+	@Param({ "10000" })
+	public int clients;
+
+	private ConfigurableApplicationContext context;
+	private long firstId;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = new SpringApplicationBuilder(DsclientApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.jpa.show-sql=false", "spring.main.banner-mode=off", "logging.level.root=WARN")
+				.run();
+		firstId = new ClientDataGenerator(context.getBean(DataSource.class)).seed(clients);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	public <T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	public long randomId() {
+		return firstId + ThreadLocalRandom.current().nextInt(clients);
+	}
+}
@@ -0,0 +1,67 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Serialização JSON de um ClientDTO e de uma Page de 12, com o ObjectMapper
+ * configurado como o do Spring Boot (datas ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientJsonBenchmark {
+
+	private ObjectMapper objectMapper;
+	private ClientDTO client;
+	private Page<ClientDTO> page;
+
+	@Setup
+	public void setup() {
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+		client = new ClientDTO(7L, "Jose Saramago", "10239254871", 5000.0, Instant.parse("1996-12-23T07:00:00Z"), 0);
+		List<ClientDTO> content = new ArrayList<>();
+		for (long id = 1; id <= 12; id++) {
+			content.add(new ClientDTO(id, "Cliente " + id, "1023925487" + (id % 10), 1000.0 * id,
+					Instant.parse("1996-12-23T07:00:00Z"), (int) (id % 4)));
+		}
+		page = new PageImpl<>(content, PageRequest.of(0, 12), 10_000);
+	}
+
+	@Benchmark
+	public byte[] serializeClient() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(client);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
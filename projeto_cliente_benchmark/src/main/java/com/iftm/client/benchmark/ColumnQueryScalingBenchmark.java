@@ -0,0 +1,85 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.DsclientApplication;
+import com.iftm.client.services.analytics.ClientColumnFilter;
+import com.iftm.client.services.analytics.ClientColumnStore;
+import com.iftm.client.services.analytics.ColumnQueryResult;
+
+/*
+ * Escalabilidade da varredura paralela do ClientColumnStore: o mesmo filtro combinado
+ * (income, birthDate e children) com client.analytics.parallelism de 1 a 8 threads, só
+ * agregando e com os 100 primeiros por nome. Sobe a própria aplicação porque o número de
+ * threads é fixado na criação do store. Com menos núcleos que threads, os valores
+ * maiores só medem o custo da divisão.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnQueryScalingBenchmark {
+
+	@Param({ "1000000" })
+	public int clients;
+
+	@Param({ "1", "2", "4", "8" })
+	public int parallelism;
+
+	private ConfigurableApplicationContext context;
+	private ClientColumnStore store;
+	private ClientColumnFilter filter;
+
+	@Setup(Level.Trial)
+	public void start() {
+		context = new SpringApplicationBuilder(DsclientApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.jpa.show-sql=false", "spring.main.banner-mode=off", "logging.level.root=WARN")
+				// como argumentos: properties() só define padrões, e o application.properties desliga o store
+				.run("--client.analytics.column-store.enabled=true",
+						"--client.analytics.parallelism=" + parallelism,
+						"--client.analytics.column-store.initial-capacity=" + (clients + 16));
+		new ClientDataGenerator(context.getBean(DataSource.class)).seed(clients);
+		store = context.getBean(ClientColumnStore.class);
+		store.reload();
+		filter = ClientColumnFilter.of(5000.0, 15000.0, Instant.parse("1960-01-01T00:00:00Z"),
+				Instant.parse("1990-01-01T00:00:00Z"), 1, 3);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public ColumnQueryResult aggregate() {
+		return store.query(filter, 0);
+	}
+
+	@Benchmark
+	public ColumnQueryResult top100ByName() {
+		return store.query(filter, 100);
+	}
+}
@@ -0,0 +1,69 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.analytics.ClientColumnFilter;
+import com.iftm.client.services.analytics.ClientColumnStore;
+
+/*
+ * Agregado de income com filtro de income, birthDate e children: GROUP BY no H2 contra a
+ * varredura das colunas do ClientColumnStore. O store é recarregado depois da carga dos
+ * dados gerados, que vão direto por JDBC e não passam pelo ClientService. Os filtros mudam
+ * a cada chamada: o H2 reaproveita o resultado de uma consulta repetida sobre tabelas que
+ * não mudaram, o que mediria só esse cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dclient.analytics.column-store.enabled=true")
+public class ColumnStoreScanBenchmark {
+
+	private ClientRepository repository;
+	private ClientColumnStore store;
+	private ClientColumnFilter[] filters;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup(ClientDatabase database) {
+		repository = database.bean(ClientRepository.class);
+		store = database.bean(ClientColumnStore.class);
+		store.reload();
+		filters = new ClientColumnFilter[64];
+		for (int i = 0; i < filters.length; i++) {
+			filters[i] = ClientColumnFilter.of(5000.0 + i, 15000.0, Instant.parse("1960-01-01T00:00:00Z"),
+					Instant.parse("1990-01-01T00:00:00Z"), 1, 3);
+		}
+	}
+
+	private ClientColumnFilter nextFilter() {
+		next = (next + 1) & (filters.length - 1);
+		return filters[next];
+	}
+
+	@Benchmark
+	public IncomeStatsDTO sql() {
+		return repository.incomeStats(nextFilter().toSpecification());
+	}
+
+	@Benchmark
+	public IncomeStatsDTO columnScan() {
+		return store.incomeStats(nextFilter());
+	}
+}
@@ -0,0 +1,126 @@
+package com.iftm.client.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.DsclientApplication;
+
+/*
+ * Teste de carga de client.execution.mode. Para cada modo sobe a aplicação com Tomcat
+ * limitado a poucos threads e um banco com latência simulada, e dispara `concorrência`
+ * clientes HTTP em laço fechado contra GET /clients/id/{id} (com o cache desligado, cada
+ * requisição é uma leitura por chave primária) por `segundos`. Imprime vazão, latências
+ * e erros de cada modo.
+ *
+ * uso: java -cp benchmarks.jar com.iftm.client.benchmark.ExecutionModeLoadTest
+ *          [modos=blocking,async] [concorrência=200] [segundos=20] [latência-ms=20] [tomcat-threads=16]
+ */
+public class ExecutionModeLoadTest {
+
+	private static final int CLIENTS = 10000;
+
+	public static void main(String[] args) throws Exception {
+		List<String> modes = Arrays.asList((args.length > 0 ? args[0] : "blocking,async").split(","));
+		int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+		int latencyMs = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+		int tomcatThreads = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+
+		System.out.printf("concorrência=%d segundos=%d latência-banco=%dms tomcat-threads=%d%n",
+				concurrency, seconds, latencyMs, tomcatThreads);
+		for (String mode : modes) {
+			ConfigurableApplicationContext context = new SpringApplicationBuilder(DsclientApplication.class,
+					SimulatedDatabaseLatency.class)
+					.properties("server.port=0", "spring.jpa.show-sql=false", "spring.main.banner-mode=off",
+							"logging.level.root=WARN", "client.cache.maximum-size=0",
+							"client.execution.mode=" + mode,
+							"client.execution.pool-size=" + concurrency,
+							"server.tomcat.threads.max=" + tomcatThreads,
+							"spring.datasource.hikari.maximum-pool-size=" + concurrency,
+							"benchmark.db-latency-ms=" + latencyMs)
+					.run();
+			try {
+				new ClientDataGenerator(context.getBean(DataSource.class)).seed(CLIENTS);
+				int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+				run(mode, port, concurrency, 3, false);
+				run(mode, port, concurrency, seconds, true);
+			} finally {
+				context.close();
+			}
+		}
+	}
+
+	private static void run(String mode, int port, int concurrency, int seconds, boolean report)
+			throws InterruptedException {
+		HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10)).build();
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<long[]> latencies = new ArrayList<>();
+		long[] errors = new long[concurrency];
+		ExecutorService users = Executors.newFixedThreadPool(concurrency);
+		for (int u = 0; u < concurrency; u++) {
+			int user = u;
+			long[] samples = new long[1 << 16];
+			latencies.add(samples);
+			users.execute(() -> {
+				int n = 0;
+				while (running.get() && n < samples.length - 1) {
+					long id = 1 + ThreadLocalRandom.current().nextInt(CLIENTS);
+					HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+							+ "/clients/id/" + id)).build();
+					long started = System.nanoTime();
+					try {
+						HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+						if (response.statusCode() != 200) {
+							errors[user]++;
+						}
+					} catch (Exception e) {
+						errors[user]++;
+					}
+					samples[++n] = System.nanoTime() - started;
+				}
+				samples[0] = n;
+			});
+		}
+		long started = System.nanoTime();
+		Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+		running.set(false);
+		users.shutdown();
+		users.awaitTermination(1, TimeUnit.MINUTES);
+		double elapsed = (System.nanoTime() - started) / 1e9;
+		if (report) {
+			report(mode, latencies, Arrays.stream(errors).sum(), elapsed);
+		}
+	}
+
+	private static void report(String mode, List<long[]> latencies, long errors, double elapsed) {
+		long[] all = latencies.stream()
+				.flatMapToLong(samples -> Arrays.stream(samples, 1, (int) samples[0] + 1)).sorted().toArray();
+		System.out.printf("%-8s requisições=%d vazão=%.0f req/s p50=%.1fms p99=%.1fms erros=%d%n", mode, all.length,
+				all.length / elapsed, percentile(all, 0.50), percentile(all, 0.99), errors);
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))] / 1e6;
+	}
+}
@@ -0,0 +1,71 @@
+package com.iftm.client.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.repositories.KeysetRequest;
+import com.iftm.client.services.ClientService;
+
+/*
+ * A mesma página de 12 clientes ordenados por nome, buscada por offset (findAllPaged,
+ * com count) e por cursor (findAllKeyset). depth é a posição da página em % da tabela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindAllPagedBenchmark {
+
+	private static final int LINES_PER_PAGE = 12;
+
+	@Param({ "0", "50", "99" })
+	public int depth;
+
+	private ClientService service;
+	private PageRequest pageRequest;
+	private String cursor;
+
+	@Setup(Level.Trial)
+	public void setup(ClientDatabase database) {
+		service = database.bean(ClientService.class);
+		int page = (int) ((long) database.clients * depth / 100 / LINES_PER_PAGE);
+		pageRequest = PageRequest.of(page, LINES_PER_PAGE, Direction.ASC, "name");
+		if (page > 0) {
+			// cursor equivalente: último cliente da página anterior
+			Page<ClientDTO> previous = service.findAllPaged(PageRequest.of(page - 1, LINES_PER_PAGE, Direction.ASC, "name"));
+			List<ClientDTO> rows = previous.getContent();
+			cursor = KeysetRequest.of(null, LINES_PER_PAGE, Direction.ASC, "name")
+					.next(rows.get(rows.size() - 1).toEntity());
+		}
+	}
+
+	@Benchmark
+	public Page<ClientDTO> offset() {
+		return service.findAllPaged(pageRequest);
+	}
+
+	@Benchmark
+	public CursorPageDTO<ClientDTO> keyset() {
+		return service.findAllKeyset(KeysetRequest.of(cursor, LINES_PER_PAGE, Direction.ASC, "name"));
+	}
+}
@@ -0,0 +1,52 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+
+/*
+ * findById pelo serviço (com o cache de ClientDTO) e direto no banco (sem cache).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindByIdBenchmark {
+
+	private ClientDatabase database;
+	private ClientService service;
+	private ClientRepository repository;
+
+	@Setup(Level.Trial)
+	public void setup(ClientDatabase database) {
+		this.database = database;
+		this.service = database.bean(ClientService.class);
+		this.repository = database.bean(ClientRepository.class);
+	}
+
+	@Benchmark
+	public ClientDTO findById() {
+		return service.findById(database.randomId());
+	}
+
+	@Benchmark
+	public ClientDTO findByIdUncached() {
+		return repository.findProjectedById(database.randomId()).orElseThrow();
+	}
+}
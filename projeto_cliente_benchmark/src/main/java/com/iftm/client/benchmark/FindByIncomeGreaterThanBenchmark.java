@@ -0,0 +1,51 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Primeira página de findByIncomeGreaterThan com filtro pouco (1000) e muito (19000) seletivo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindByIncomeGreaterThanBenchmark {
+
+	@Param({ "1000", "19000" })
+	public double income;
+
+	private ClientService service;
+	private PageRequest pageRequest;
+
+	@Setup(Level.Trial)
+	public void setup(ClientDatabase database) {
+		service = database.bean(ClientService.class);
+		pageRequest = PageRequest.of(0, 12, Direction.ASC, "name");
+	}
+
+	@Benchmark
+	public Page<ClientDTO> findByIncomeGreaterThan() {
+		return service.findByIncomeGreaterThan(pageRequest, income);
+	}
+}
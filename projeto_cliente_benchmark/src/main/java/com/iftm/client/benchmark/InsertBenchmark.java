@@ -0,0 +1,63 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Custo por cliente inserido: um insert por transação contra insertAll em lote de 100.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+	private static final int BATCH = 100;
+
+	private ClientService service;
+
+	@Setup(Level.Trial)
+	public void setup(ClientDatabase database) {
+		service = database.bean(ClientService.class);
+	}
+
+	@Benchmark
+	public ClientDTO insert() {
+		return service.insert(newClient());
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public BatchInsertResultDTO insertAll() {
+		List<ClientDTO> dtos = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			dtos.add(newClient());
+		}
+		return service.insertAll(dtos);
+	}
+
+	private ClientDTO newClient() {
+		return new ClientDTO(null, "Cliente Benchmark", "12345678901", 3500.0, Instant.parse("1990-06-15T00:00:00Z"), 1);
+	}
+}
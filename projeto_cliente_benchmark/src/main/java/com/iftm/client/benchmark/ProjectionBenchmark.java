@@ -0,0 +1,65 @@
+package com.iftm.client.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+
+/*
+ * Leitura de uma página carregando entidades e copiando para ClientDTO (caminho antigo)
+ * contra a projeção direta em ClientDTO. Rode com -prof gc para ver a alocação por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+	@Param({ "12", "500" })
+	public int linesPerPage;
+
+	private ClientRepository repository;
+	private ClientService service;
+	private TransactionTemplate readOnly;
+	private PageRequest pageRequest;
+
+	@Setup(Level.Trial)
+	public void setup(ClientDatabase database) {
+		repository = database.bean(ClientRepository.class);
+		service = database.bean(ClientService.class);
+		readOnly = new TransactionTemplate(database.bean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+		pageRequest = PageRequest.of(1, linesPerPage, Direction.ASC, "name");
+	}
+
+	@Benchmark
+	public Page<ClientDTO> entities() {
+		return readOnly.execute(status -> repository.findAll(pageRequest).map(x -> new ClientDTO(x)));
+	}
+
+	@Benchmark
+	public Page<ClientDTO> projection() {
+		return service.findAllPaged(pageRequest);
+	}
+}
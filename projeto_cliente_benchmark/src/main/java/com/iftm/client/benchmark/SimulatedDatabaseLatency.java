@@ -0,0 +1,72 @@
+package com.iftm.client.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/*
+ * O H2 em memória responde em microssegundos; um banco de verdade fica a alguns
+ * milissegundos de rede. Este post-processor embrulha o DataSource e dorme
+ * benchmark.db-latency-ms antes de cada execute* de Statement, para que o teste de carga
+ * tenha requisições presas no banco como em produção.
+ */
+public class SimulatedDatabaseLatency implements BeanPostProcessor {
+
+	private final long latencyMs;
+
+	public SimulatedDatabaseLatency(@Value("${benchmark.db-latency-ms:0}") long latencyMs) {
+		this.latencyMs = latencyMs;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		if (latencyMs > 0 && bean instanceof DataSource) {
+			return proxy(DataSource.class, bean);
+		}
+		return bean;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T proxy(Class<T> type, Object target) {
+		InvocationHandler handler = (p, method, args) -> {
+			if (target instanceof Statement && method.getName().startsWith("execute")) {
+				Thread.sleep(latencyMs);
+			}
+			Object result = invoke(target, method, args);
+			if (result instanceof Connection) {
+				return proxy(Connection.class, result);
+			}
+			if (result instanceof Statement) {
+				return proxy(statementInterface(result), result);
+			}
+			return result;
+		};
+		return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { type }, handler);
+	}
+
+	private static Class<?> statementInterface(Object statement) {
+		if (statement instanceof java.sql.CallableStatement) {
+			return java.sql.CallableStatement.class;
+		}
+		if (statement instanceof java.sql.PreparedStatement) {
+			return java.sql.PreparedStatement.class;
+		}
+		return Statement.class;
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.iftm.client.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Tempo de subida: para cada modo inicia a aplicação numa JVM nova e mede, a partir do
+ * início do processo, quanto tempo leva até a primeira resposta 200 de GET /clients/id/1.
+ * Modos: default (perfil test), fast-start (test,fast-start) e fast-start+cds (o mesmo com o
+ * arquivo AppCDS). Usa o jar comum e as dependências do módulo da aplicação, que precisa ter
+ * sido empacotado com o perfil cds (mvn -Pcds package em ../projeto_cliente_teste).
+ *
+ * uso: java -cp benchmarks.jar com.iftm.client.benchmark.StartupTimeBenchmark
+ *          [target-da-aplicação=../projeto_cliente_teste/target] [execuções=5] [modos=default,fast-start,fast-start+cds]
+ */
+public class StartupTimeBenchmark {
+
+	private static final String MAIN_CLASS = "com.iftm.client.DsclientApplication";
+
+	public static void main(String[] args) throws Exception {
+		File target = new File(args.length > 0 ? args[0] : "../projeto_cliente_teste/target");
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		List<String> modes = Arrays.asList((args.length > 2 ? args[2] : "default,fast-start,fast-start+cds").split(","));
+
+		File[] jars = target.listFiles((dir, name) -> name.startsWith("dsclient-") && name.endsWith(".jar")
+				&& !name.endsWith("-exec.jar"));
+		File lib = new File(target, "cds/lib");
+		File archive = new File(target, "cds/app.jsa");
+		if (jars == null || jars.length != 1 || !lib.isDirectory()) {
+			throw new IllegalStateException("rode mvn -Pcds package em " + target.getParentFile());
+		}
+		String classpath = jars[0].getPath() + File.pathSeparator + lib.getPath() + File.separator + "*";
+
+		System.out.printf("execuções=%d classpath=%s%n", runs, classpath);
+		for (String mode : modes) {
+			long[] millis = new long[runs];
+			for (int i = 0; i < runs; i++) {
+				int port = freePort();
+				millis[i] = timeToFirstResponse(command(mode, classpath, archive, port), port);
+			}
+			Arrays.sort(millis);
+			System.out.printf("%-16s mediana=%dms mínimo=%dms máximo=%dms%n", mode, millis[runs / 2], millis[0],
+					millis[runs - 1]);
+		}
+	}
+
+	private static List<String> command(String mode, String classpath, File archive, int port) {
+		List<String> command = new ArrayList<>();
+		command.add(ProcessHandle.current().info().command().orElse("java"));
+		if (mode.endsWith("+cds")) {
+			if (!archive.isFile()) {
+				throw new IllegalStateException("arquivo CDS não encontrado: " + archive);
+			}
+			command.add("-XX:SharedArchiveFile=" + archive.getPath());
+		}
+		command.addAll(Arrays.asList("-cp", classpath, MAIN_CLASS, "--server.port=" + port,
+				"--logging.level.root=WARN", "--spring.jpa.show-sql=false"));
+		command.add(mode.startsWith("fast-start") ? "--spring.profiles.active=test,fast-start"
+				: "--spring.profiles.active=test");
+		return command;
+	}
+
+	private static long timeToFirstResponse(List<String> command, int port) throws IOException, InterruptedException {
+		HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/clients/id/1"))
+				.timeout(Duration.ofSeconds(10)).build();
+
+		long started = System.nanoTime();
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		try {
+			while (process.isAlive()) {
+				try {
+					if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+					}
+				} catch (IOException e) {
+					// ainda subindo
+				}
+				Thread.sleep(10);
+			}
+			throw new IllegalStateException("a aplicação terminou com código " + process.exitValue());
+		} finally {
+			process.destroy();
+			process.waitFor(30, TimeUnit.SECONDS);
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.iftm.client.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CompactPageDTO;
+
+/*
+ * Formatos de resposta (WireFormatConfig) para um ClientDTO e uma página de `pageSize`:
+ * - json: o que GET /clients devolve hoje (Page completa);
+ * - compact-json: CompactPageDTO em JSON (application/vnd.iftm.compact+json);
+ * - cbor / smile: CompactPageDTO binário, sem campos nulos.
+ * Os bytes de cada formato são impressos no início do trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+	@Param({ "json", "compact-json", "cbor", "smile" })
+	private String format;
+
+	@Param({ "12", "200" })
+	private int pageSize;
+
+	private ObjectMapper objectMapper;
+	private ClientDTO client;
+	private Object page;
+
+	@Setup
+	public void setup() throws JsonProcessingException {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		switch (format) {
+		case "cbor":
+			builder.factory(new CBORFactory()).serializationInclusion(JsonInclude.Include.NON_NULL);
+			break;
+		case "smile":
+			builder.factory(new SmileFactory()).serializationInclusion(JsonInclude.Include.NON_NULL);
+			break;
+		default:
+			break;
+		}
+		objectMapper = builder.build();
+
+		client = new ClientDTO(7L, "Jose Saramago", "10239254871", 5000.0, Instant.parse("1996-12-23T07:00:00Z"), 0, 3L);
+		List<ClientDTO> content = new ArrayList<>();
+		for (long id = 1; id <= pageSize; id++) {
+			content.add(new ClientDTO(id, "Cliente " + id, "1023925487" + (id % 10), 1000.0 * id,
+					Instant.parse("1996-12-23T07:00:00Z"), (int) (id % 4), id % 3));
+		}
+		PageImpl<ClientDTO> full = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+		page = "json".equals(format) ? full : CompactPageDTO.of(full);
+
+		System.out.printf("%n%s: cliente=%d bytes, página de %d=%d bytes%n", format,
+				objectMapper.writeValueAsBytes(client).length, pageSize, objectMapper.writeValueAsBytes(page).length);
+	}
+
+	@Benchmark
+	public byte[] serializeClient() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(client);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
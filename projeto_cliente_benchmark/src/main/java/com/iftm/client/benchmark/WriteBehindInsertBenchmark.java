@@ -0,0 +1,90 @@
+package com.iftm.client.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.iftm.client.DsclientApplication;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.writebehind.ClientWriteBehind;
+
+/*
+ * Custo por cliente inserido: o insert normal (uma transação por cliente) contra o modo
+ * write-behind, aceitando 100 clientes (id, diário e fila) e esperando o lote chegar ao
+ * banco. Sobe a própria aplicação porque o ClientWriteBehind só existe com o modo ligado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBehindInsertBenchmark {
+
+	private static final int BATCH = 100;
+
+	@Param({ "true", "false" })
+	public boolean fsync;
+
+	private ConfigurableApplicationContext context;
+	private ClientService service;
+	private ClientWriteBehind writeBehind;
+
+	@Setup(Level.Trial)
+	public void start() throws IOException {
+		context = new SpringApplicationBuilder(DsclientApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("spring.jpa.show-sql=false", "spring.main.banner-mode=off", "logging.level.root=WARN")
+				// como argumentos: properties() só define padrões, e o application.properties desliga o modo
+				.run("--client.write-behind.enabled=true",
+						"--client.write-behind.batch-size=" + BATCH,
+						"--client.write-behind.journal-fsync=" + fsync,
+						"--client.write-behind.journal-dir=" + Files.createTempDirectory("write-behind"));
+		service = context.getBean(ClientService.class);
+		writeBehind = context.getBean(ClientWriteBehind.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public ClientDTO insert() {
+		return service.insert(newClient());
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public boolean writeBehind() {
+		for (int i = 0; i < BATCH; i++) {
+			service.insertWriteBehind(newClient());
+		}
+		return writeBehind.flush(Duration.ofSeconds(30));
+	}
+
+	private ClientDTO newClient() {
+		return new ClientDTO(null, "Cliente Benchmark", "12345678901", 3500.0, Instant.parse("1990-06-15T00:00:00Z"), 1);
+	}
+}
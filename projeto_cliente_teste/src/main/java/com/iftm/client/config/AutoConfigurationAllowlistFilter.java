@@ -0,0 +1,68 @@
+package com.iftm.client.config;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+
+/*
+ * Com client.startup.auto-configuration-allowlist.enabled=true (perfil fast-start), só as
+ * auto-configurations listadas em client.startup.auto-configuration-allowlist.classes são
+ * carregadas; as demais são descartadas antes mesmo de avaliar suas condições, o que poupa
+ * o carregamento das classes e a avaliação de centenas de @Conditional na subida.
+ * Desligado, não filtra nada. Registrado em META-INF/spring.factories.
+ *
+ * O Spring também consulta os filtros para as classes importadas pelas auto-configurations
+ * (DataSourceConfiguration.Hikari, por exemplo); essas não são candidatas e passam sempre.
+ */
+public class AutoConfigurationAllowlistFilter implements AutoConfigurationImportFilter, EnvironmentAware,
+		BeanClassLoaderAware {
+
+	public static final String ENABLED = "client.startup.auto-configuration-allowlist.enabled";
+	public static final String CLASSES = "client.startup.auto-configuration-allowlist.classes";
+
+	private Environment environment;
+	private ClassLoader classLoader;
+	private Set<String> candidates;
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	@Override
+	public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+		boolean[] matches = new boolean[autoConfigurationClasses.length];
+		Arrays.fill(matches, true);
+		if (environment == null || !environment.getProperty(ENABLED, Boolean.class, false)) {
+			return matches;
+		}
+		Set<String> allowed = new HashSet<>(
+				Arrays.asList(environment.getProperty(CLASSES, String[].class, new String[0])));
+		Set<String> candidates = candidates();
+		for (int i = 0; i < autoConfigurationClasses.length; i++) {
+			String candidate = autoConfigurationClasses[i];
+			matches[i] = candidate == null || !candidates.contains(candidate) || allowed.contains(candidate);
+		}
+		return matches;
+	}
+
+	private Set<String> candidates() {
+		if (candidates == null) {
+			candidates = new HashSet<>(SpringFactoriesLoader.loadFactoryNames(EnableAutoConfiguration.class, classLoader));
+		}
+		return candidates;
+	}
+}
@@ -0,0 +1,57 @@
+package com.iftm.client.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/*
+ * Execução de treino do arquivo AppCDS (perfil Maven cds): com
+ * client.startup.cds-training-run=true a aplicação sobe, faz uma requisição
+ * GET /clients/id/{client.startup.cds-training-id} a si mesma para carregar também as classes
+ * do caminho da requisição, e encerra. A JVM grava a lista das classes carregadas
+ * (-XX:DumpLoadedClassList) na saída; o arquivo é montado a partir dela com -Xshare:dump.
+ */
+@Component
+@ConditionalOnProperty(name = "client.startup.cds-training-run", havingValue = "true")
+public class CdsTrainingRun {
+
+	private static final Logger log = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+	@Value("${client.startup.cds-training-id:1}")
+	private long trainingId;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void exercise(ApplicationReadyEvent event) {
+		ApplicationContext context = event.getApplicationContext();
+		if (context instanceof WebServerApplicationContext) {
+			int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+			try {
+				HttpURLConnection connection = (HttpURLConnection) new URL(
+						"http://localhost:" + port + "/clients/id/" + trainingId).openConnection();
+				try (InputStream body = connection.getResponseCode() < 400 ? connection.getInputStream()
+						: connection.getErrorStream()) {
+					if (body != null) {
+						body.transferTo(OutputStream.nullOutputStream());
+					}
+					log.info("CDS training request returned {}", connection.getResponseCode());
+				}
+			} catch (IOException e) {
+				log.warn("CDS training request failed", e);
+			}
+		}
+		System.exit(SpringApplication.exit(context));
+	}
+}
@@ -0,0 +1,111 @@
+package com.iftm.client.config;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/*
+ * Handlers que devolvem CompletableFuture normalmente abrem uma requisição assíncrona
+ * (DeferredResult), mesmo que o futuro já esteja completo. Com client.execution.mode=blocking
+ * isso seria um segundo despacho por requisição sem ganho algum; aqui o futuro já completo
+ * é desembrulhado e escrito na hora, e exceções chegam ao ResourceExceptionHandler como
+ * se tivessem sido lançadas pelo próprio handler. Futuros pendentes seguem o caminho assíncrono.
+ */
+@Component
+public class CompletedFutureReturnValueHandler implements HandlerMethodReturnValueHandler, SmartInitializingSingleton {
+
+	private final ObjectProvider<RequestMappingHandlerAdapter> adapters;
+	private final HandlerMethodReturnValueHandlerComposite delegates = new HandlerMethodReturnValueHandlerComposite();
+
+	public CompletedFutureReturnValueHandler(ObjectProvider<RequestMappingHandlerAdapter> adapters) {
+		this.adapters = adapters;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		adapters.ifAvailable(this::install);
+	}
+
+	private void install(RequestMappingHandlerAdapter adapter) {
+		List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>(adapter.getReturnValueHandlers());
+		delegates.addHandlers(handlers);
+		handlers.add(0, this);
+		adapter.setReturnValueHandlers(handlers);
+	}
+
+	@Override
+	public boolean supportsReturnType(MethodParameter returnType) {
+		return CompletableFuture.class.isAssignableFrom(returnType.getParameterType());
+	}
+
+	@Override
+	public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+			NativeWebRequest webRequest) throws Exception {
+		CompletableFuture<?> future = (CompletableFuture<?>) returnValue;
+		if (future == null || !future.isDone()) {
+			delegates.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+			return;
+		}
+		Object value;
+		try {
+			value = future.join();
+		} catch (CompletionException e) {
+			throw unwrap(e.getCause());
+		}
+		delegates.handleReturnValue(value, new CompletedValueParameter(returnType), mavContainer, webRequest);
+	}
+
+	private static Exception unwrap(Throwable cause) {
+		if (cause instanceof Error) {
+			throw (Error) cause;
+		}
+		return (Exception) cause;
+	}
+
+	/*
+	 * O tipo de retorno visto pelos demais handlers é o do conteúdo do futuro
+	 * (CompletableFuture<ResponseEntity<X>> -> ResponseEntity<X>).
+	 */
+	private static class CompletedValueParameter extends MethodParameter {
+
+		private final ResolvableType valueType;
+
+		CompletedValueParameter(MethodParameter original) {
+			super(original);
+			this.valueType = ResolvableType.forMethodParameter(original).getGeneric(0);
+		}
+
+		private CompletedValueParameter(CompletedValueParameter original) {
+			super(original);
+			this.valueType = original.valueType;
+		}
+
+		@Override
+		public Class<?> getParameterType() {
+			return valueType.toClass();
+		}
+
+		@Override
+		public Type getGenericParameterType() {
+			return valueType.getType();
+		}
+
+		@Override
+		public CompletedValueParameter clone() {
+			return new CompletedValueParameter(this);
+		}
+	}
+}
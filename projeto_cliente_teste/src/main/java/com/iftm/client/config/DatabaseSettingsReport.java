@@ -0,0 +1,151 @@
+package com.iftm.client.config;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Relata, na subida e em GET /actuator/info ("database"), as configurações de banco
+ * efetivamente em uso: URL, pool do Hikari, batch/ordenação do Hibernate, log de SQL,
+ * estatísticas e cache de comandos do H2. Com o perfil perf ativo, o que não combina
+ * com medição de desempenho (banco em memória, show-sql, batch desligado...) vira WARN.
+ */
+@Component
+public class DatabaseSettingsReport implements InfoContributor {
+
+	private static final Logger log = LoggerFactory.getLogger(DatabaseSettingsReport.class);
+
+	private final DataSource dataSource;
+	private final EntityManagerFactory entityManagerFactory;
+	private final Environment environment;
+
+	public DatabaseSettingsReport(DataSource dataSource, EntityManagerFactory entityManagerFactory,
+			Environment environment) {
+		this.dataSource = dataSource;
+		this.entityManagerFactory = entityManagerFactory;
+		this.environment = environment;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void report() {
+		Map<String, Object> settings = settings();
+		log.info("Database settings (profiles {}): {}", Arrays.toString(environment.getActiveProfiles()), settings);
+		if (environment.acceptsProfiles(Profiles.of("perf"))) {
+			for (String warning : warnings(settings)) {
+				log.warn("perf profile: {}", warning);
+			}
+		}
+	}
+
+	@Override
+	public void contribute(Info.Builder builder) {
+		builder.withDetail("database", settings());
+	}
+
+	public Map<String, Object> settings() {
+		Map<String, Object> settings = new LinkedHashMap<>();
+		try (Connection connection = dataSource.getConnection()) {
+			DatabaseMetaData metaData = connection.getMetaData();
+			settings.put("url", metaData.getURL());
+			settings.put("product", metaData.getDatabaseProductName() + " " + metaData.getDatabaseProductVersion());
+			if ("H2".equals(metaData.getDatabaseProductName())) {
+				settings.put("h2QueryCacheSize", h2Setting(connection, "QUERY_CACHE_SIZE"));
+			}
+		} catch (SQLException e) {
+			settings.put("url", "unavailable: " + e.getMessage());
+		}
+
+		HikariDataSource hikari = hikari();
+		if (hikari != null) {
+			settings.put("poolName", hikari.getPoolName());
+			settings.put("poolMaximumSize", hikari.getMaximumPoolSize());
+			settings.put("poolMinimumIdle", hikari.getMinimumIdle());
+			settings.put("poolConnectionTimeoutMs", hikari.getConnectionTimeout());
+			settings.put("poolMaxLifetimeMs", hikari.getMaxLifetime());
+			settings.put("poolLeakDetectionThresholdMs", hikari.getLeakDetectionThreshold());
+		}
+
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		SessionFactoryOptions options = sessionFactory.getSessionFactoryOptions();
+		Map<String, Object> properties = sessionFactory.getProperties();
+		settings.put("jdbcBatchSize", options.getJdbcBatchSize());
+		settings.put("orderInserts", options.isOrderInsertsEnabled());
+		settings.put("orderUpdates", options.isOrderUpdatesEnabled());
+		settings.put("batchVersionedData", options.isJdbcBatchVersionedData());
+		settings.put("jdbcFetchSize", options.getJdbcFetchSize());
+		settings.put("showSql", Boolean.parseBoolean(String.valueOf(properties.get("hibernate.show_sql"))));
+		settings.put("ddlAuto", properties.get("hibernate.hbm2ddl.auto"));
+		settings.put("statistics", options.isStatisticsEnabled());
+		settings.put("queryPlanCacheMaxSize", properties.get("hibernate.query.plan_cache_max_size"));
+		settings.put("inClauseParameterPadding", options.inClauseParameterPaddingEnabled());
+		return settings;
+	}
+
+	private List<String> warnings(Map<String, Object> settings) {
+		List<String> warnings = new ArrayList<>();
+		if (String.valueOf(settings.get("url")).startsWith("jdbc:h2:mem:")) {
+			warnings.add("in-memory database " + settings.get("url"));
+		}
+		if (Boolean.TRUE.equals(settings.get("showSql"))) {
+			warnings.add("SQL logging is on (spring.jpa.show-sql)");
+		}
+		Integer batchSize = (Integer) settings.get("jdbcBatchSize");
+		if (batchSize == null || batchSize <= 1) {
+			warnings.add("JDBC batching is off (hibernate.jdbc.batch_size=" + batchSize + ")");
+		}
+		if (Boolean.TRUE.equals(settings.get("statistics"))) {
+			warnings.add("Hibernate statistics are on (hibernate.generate_statistics)");
+		}
+		if ("create".equals(settings.get("ddlAuto")) || "create-drop".equals(settings.get("ddlAuto"))) {
+			warnings.add("schema is recreated on every start (ddl-auto=" + settings.get("ddlAuto") + ")");
+		}
+		Object minimumIdle = settings.get("poolMinimumIdle");
+		if (minimumIdle != null && !minimumIdle.equals(settings.get("poolMaximumSize"))) {
+			warnings.add("pool is not fixed-size (minimum-idle " + minimumIdle + " < maximum-pool-size "
+					+ settings.get("poolMaximumSize") + ")");
+		}
+		return warnings;
+	}
+
+	private HikariDataSource hikari() {
+		try {
+			return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+
+	private static String h2Setting(Connection connection, String name) {
+		try (Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(
+						"SELECT VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE NAME = '" + name + "'")) {
+			return rs.next() ? rs.getString(1) : null;
+		} catch (SQLException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.iftm.client.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.resources.ClientResource;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.cache.ClientCache;
+import com.iftm.client.services.search.NameSearchIndex;
+
+/*
+ * Com spring.main.lazy-initialization=true (perfil fast-start) os beans só são criados no
+ * primeiro uso. Os do caminho de GET /clients/{id} continuam ansiosos, para que a primeira
+ * requisição não pague a criação deles; o CompletedFutureReturnValueHandler precisa ser
+ * ansioso porque se registra em afterSingletonsInstantiated.
+ */
+@Configuration(proxyBeanMethods = false)
+public class FastStartConfig {
+
+	@Bean
+	static LazyInitializationExcludeFilter hotPathBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(ClientResource.class, ClientService.class,
+				ClientRepository.class, ClientCache.class, RequestExecutor.class,
+				CompletedFutureReturnValueHandler.class, NameSearchIndex.class);
+	}
+}
@@ -0,0 +1,29 @@
+package com.iftm.client.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+ * Limite de requisições por chamador em /clients/** (client.rate-limit.*), desligado por padrão.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "client.rate-limit.enabled", havingValue = "true")
+public class RateLimitConfig implements WebMvcConfigurer {
+
+	private final RateLimitInterceptor interceptor;
+
+	public RateLimitConfig(@Value("${client.rate-limit.requests-per-second:100}") double requestsPerSecond,
+			@Value("${client.rate-limit.burst:200}") int burst,
+			@Value("${client.rate-limit.key-header:}") String keyHeader,
+			@Value("${client.rate-limit.max-callers:100000}") long maxCallers) {
+		this.interceptor = new RateLimitInterceptor(requestsPerSecond, burst, keyHeader, maxCallers);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(interceptor).addPathPatterns("/clients/**", "/clients");
+	}
+}
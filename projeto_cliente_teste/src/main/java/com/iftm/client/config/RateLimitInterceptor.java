@@ -0,0 +1,66 @@
+package com.iftm.client.config;
+
+import java.security.Principal;
+import java.time.Duration;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.iftm.client.services.exceptions.RateLimitExceededException;
+
+/*
+ * Um TokenBucket por chamador, identificado pelo usuário autenticado ou, sem ele, pelo IP.
+ * O cabeçalho client.rate-limit.key-header só é lido quando configurado, o que só deve
+ * acontecer atrás de um gateway que o preencha: vindo do cliente, cada valor novo seria um
+ * balde novo. Os baldes ficam num cache do Caffeine (concorrente, limitado a
+ * client.rate-limit.max-callers e expirando depois de ociosos). Acima do limite a
+ * requisição termina em 429 com Retry-After (ResourceExceptionHandler).
+ * Só o despacho original é contado: o redespacho das respostas assíncronas não.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+	private final double ratePerSecond;
+	private final int burst;
+	private final String keyHeader;
+	private final Cache<String, TokenBucket> buckets;
+
+	public RateLimitInterceptor(double ratePerSecond, int burst, String keyHeader, long maxCallers) {
+		this.ratePerSecond = ratePerSecond;
+		this.burst = burst;
+		this.keyHeader = keyHeader;
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(maxCallers)
+				.expireAfterAccess(Duration.ofMinutes(10))
+				.build();
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (request.getDispatcherType() != DispatcherType.REQUEST) {
+			return true;
+		}
+		String caller = caller(request);
+		long wait = buckets.get(caller, key -> new TokenBucket(ratePerSecond, burst)).tryAcquire(System.nanoTime());
+		if (wait > 0) {
+			throw new RateLimitExceededException("Rate limit exceeded for " + caller, Duration.ofNanos(wait));
+		}
+		return true;
+	}
+
+	private String caller(HttpServletRequest request) {
+		if (StringUtils.hasText(keyHeader)) {
+			String key = request.getHeader(keyHeader);
+			if (StringUtils.hasText(key)) {
+				return "header:" + key;
+			}
+		}
+		Principal principal = request.getUserPrincipal();
+		return principal != null ? "user:" + principal.getName() : "ip:" + request.getRemoteAddr();
+	}
+}
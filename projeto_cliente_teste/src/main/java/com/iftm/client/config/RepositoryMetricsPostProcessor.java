@@ -0,0 +1,69 @@
+package com.iftm.client.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Acrescenta um timer "client.repository.invocations" (tags repository, method, exception)
+ * a cada método dos repositórios Spring Data, para saber qual consulta está lenta.
+ * Para métodos que devolvem Stream o tempo medido é só o da abertura do cursor.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+	public static final String METRIC_NAME = "client.repository.invocations";
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) {
+		if (bean instanceof RepositoryFactoryBeanSupport) {
+			((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory -> factory
+					.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+							new TimingInterceptor(repositoryInformation.getRepositoryInterface().getSimpleName()))));
+		}
+		return bean;
+	}
+
+	private class TimingInterceptor implements MethodInterceptor {
+
+		private final String repository;
+
+		TimingInterceptor(String repository) {
+			this.repository = repository;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			MeterRegistry meterRegistry = registry.getIfAvailable();
+			if (meterRegistry == null) {
+				return invocation.proceed();
+			}
+			Timer.Sample sample = Timer.start(meterRegistry);
+			String exception = "none";
+			try {
+				return invocation.proceed();
+			} catch (Throwable e) {
+				exception = e.getClass().getSimpleName();
+				throw e;
+			} finally {
+				sample.stop(Timer.builder(METRIC_NAME)
+						.tag("repository", repository)
+						.tag("method", invocation.getMethod().getName())
+						.tag("exception", exception)
+						.register(meterRegistry));
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.iftm.client.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import com.iftm.client.repositories.RowLimited;
+import com.iftm.client.services.exceptions.RowLimitExceededException;
+
+/*
+ * Limite de linhas para os métodos de repositório marcados com @RowLimited, que devolvem
+ * List sem paginação. A chamada é desviada para a variante com os mesmos parâmetros e um
+ * Pageable no fim (mesmo nome ou o de @RowLimited), que devolve Slice, com
+ * PageRequest.of(0, client.repository.max-list-rows): o banco devolve no máximo uma linha
+ * além do limite, sem count, e, se ela vier, a chamada falha com
+ * RowLimitExceededException em vez de trazer a tabela inteira para o heap. Métodos herdados
+ * (findAll de JpaRepository e JpaSpecificationExecutor) e os não marcados seguem direto.
+ */
+@Component
+public class RepositoryRowLimitPostProcessor implements BeanPostProcessor {
+
+	private final int maxRows;
+
+	public RepositoryRowLimitPostProcessor(@Value("${client.repository.max-list-rows:10000}") int maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) {
+		if (bean instanceof RepositoryFactoryBeanSupport) {
+			((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory -> factory
+					.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> proxyFactory
+							.addAdvice(new RowLimitInterceptor(repositoryInformation.getRepositoryInterface()))));
+		}
+		return bean;
+	}
+
+	private class RowLimitInterceptor implements MethodInterceptor {
+
+		private final Class<?> repositoryInterface;
+		// método marcado -> variante com Pageable, resolvidos na criação do proxy
+		private final Map<Method, Method> variants = new HashMap<>();
+
+		RowLimitInterceptor(Class<?> repositoryInterface) {
+			this.repositoryInterface = repositoryInterface;
+			for (Method method : repositoryInterface.getMethods()) {
+				if (method.isAnnotationPresent(RowLimited.class)) {
+					variants.put(method, boundedVariant(method));
+				}
+			}
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Method method = invocation.getMethod();
+			Method bounded = variants.get(method);
+			if (bounded == null || !(invocation instanceof ProxyMethodInvocation)) {
+				return invocation.proceed();
+			}
+			Object[] args = Arrays.copyOf(invocation.getArguments(), invocation.getArguments().length + 1);
+			args[args.length - 1] = PageRequest.of(0, maxRows);
+			Slice<?> slice;
+			try {
+				slice = (Slice<?>) bounded.invoke(((ProxyMethodInvocation) invocation).getProxy(), args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if (slice.hasNext()) {
+				throw new RowLimitExceededException(repositoryInterface.getSimpleName() + "." + method.getName()
+						+ " returned more than " + maxRows + " rows; use the paged or Stream variant");
+			}
+			return slice.getContent();
+		}
+
+		private Method boundedVariant(Method method) {
+			String name = method.getAnnotation(RowLimited.class).value();
+			if (name.isEmpty()) {
+				name = method.getName();
+			}
+			Class<?>[] types = Arrays.copyOf(method.getParameterTypes(), method.getParameterCount() + 1);
+			types[types.length - 1] = Pageable.class;
+			Method candidate;
+			try {
+				candidate = repositoryInterface.getMethod(name, types);
+			} catch (NoSuchMethodException e) {
+				candidate = null;
+			}
+			// Page também é Slice, mas faria um count a cada chamada
+			if (method.getReturnType() != List.class || candidate == null || candidate.getReturnType() != Slice.class) {
+				throw new IllegalStateException("@RowLimited " + repositoryInterface.getSimpleName() + "." + method.getName()
+						+ " must return List and have a variant " + name + " with a trailing Pageable returning Slice");
+			}
+			return candidate;
+		}
+	}
+}
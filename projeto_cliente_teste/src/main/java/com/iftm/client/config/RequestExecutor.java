@@ -0,0 +1,111 @@
+package com.iftm.client.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/*
+ * Onde o ClientResource executa as chamadas (bloqueantes) ao ClientService, conforme
+ * client.execution.mode:
+ *  - blocking (padrão): no próprio thread do Tomcat; o futuro já volta completo e a
+ *    resposta é escrita na mesma requisição, como antes;
+ *  - async: em um pool limitado (client.execution.pool-size threads, fila de
+ *    client.execution.queue-capacity); o thread do Tomcat é liberado enquanto o banco responde.
+ *    Com o pool e a fila cheios a requisição falha na hora com 503;
+ *  - virtual: um virtual thread por chamada. Exige Java 21 em tempo de execução.
+ */
+@Component
+public class RequestExecutor {
+
+	public static final String BLOCKING = "blocking";
+	public static final String ASYNC = "async";
+	public static final String VIRTUAL = "virtual";
+
+	private final String mode;
+	private final ExecutorService executor;
+
+	public RequestExecutor(@Value("${client.execution.mode:blocking}") String mode,
+			@Value("${client.execution.pool-size:64}") int poolSize,
+			@Value("${client.execution.queue-capacity:1000}") int queueCapacity,
+			MeterRegistry registry) {
+		this.mode = mode;
+		switch (mode) {
+		case BLOCKING:
+			executor = null;
+			break;
+		case ASYNC:
+			executor = ExecutorServiceMetrics.monitor(registry, boundedPool(poolSize, queueCapacity),
+					"client.execution");
+			break;
+		case VIRTUAL:
+			executor = virtualThreadPerTask();
+			break;
+		default:
+			throw new IllegalArgumentException("Invalid client.execution.mode: " + mode);
+		}
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public <T> CompletableFuture<T> submit(Supplier<T> task) {
+		if (executor == null) {
+			try {
+				return CompletableFuture.completedFuture(task.get());
+			} catch (RuntimeException e) {
+				return CompletableFuture.failedFuture(e);
+			}
+		}
+		try {
+			return CompletableFuture.supplyAsync(task, executor);
+		} catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (executor != null) {
+			executor.shutdown();
+			executor.awaitTermination(30, TimeUnit.SECONDS);
+		}
+	}
+
+	private static ExecutorService boundedPool(int poolSize, int queueCapacity) {
+		AtomicInteger count = new AtomicInteger();
+		return new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), task -> {
+					Thread thread = new Thread(task, "client-exec-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/*
+	 * O projeto compila para Java 11; a fábrica de virtual threads é procurada por reflexão
+	 * para que o mesmo jar use virtual threads quando roda em um JDK 21 ou mais novo.
+	 */
+	private static ExecutorService virtualThreadPerTask() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("client.execution.mode=virtual requires Java 21 or newer (running "
+					+ System.getProperty("java.version") + ")", e);
+		}
+	}
+}
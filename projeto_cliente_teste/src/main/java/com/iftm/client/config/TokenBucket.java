@@ -0,0 +1,42 @@
+package com.iftm.client.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket sem lock: `ratePerSecond` fichas por segundo e até `burst` acumuladas.
+ * Em vez de contar fichas, guarda num único AtomicLong o instante (nanoTime) em que o
+ * balde estaria cheio de novo (GCRA); cada pedido é um compareAndSet, então threads
+ * concorrentes nunca esperam umas pelas outras.
+ */
+public class TokenBucket {
+
+	private final long intervalNanos;
+	private final long toleranceNanos;
+	private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+	public TokenBucket(double ratePerSecond, int burst) {
+		if (ratePerSecond <= 0 || burst < 1) {
+			throw new IllegalArgumentException("rate must be > 0 and burst >= 1");
+		}
+		this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+		this.toleranceNanos = intervalNanos * (burst - 1);
+	}
+
+	/*
+	 * 0 se a ficha foi concedida; senão, quantos nanossegundos faltam para a próxima.
+	 */
+	public long tryAcquire(long nowNanos) {
+		while (true) {
+			long current = fullAt.get();
+			long start = current == Long.MIN_VALUE ? nowNanos : Math.max(current, nowNanos);
+			long wait = start - nowNanos - toleranceNanos;
+			if (wait > 0) {
+				return wait;
+			}
+			if (fullAt.compareAndSet(current, start + intervalNanos)) {
+				return 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.iftm.client.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/*
+ * Formatos compactos para o tráfego entre serviços, escolhidos pelo Accept:
+ * - application/cbor e application/x-jackson-smile: binários, com o mesmo modelo do JSON;
+ * - application/vnd.iftm.compact+json: JSON.
+ * Nos três, uma Page vira CompactPageDTO (ver CompactPageResponseAdvice); nos binários,
+ * campos nulos são omitidos. Os mappers partem do builder do Spring Boot, então seguem
+ * as mesmas configurações do JSON (datas, módulos).
+ */
+@Configuration(proxyBeanMethods = false)
+public class WireFormatConfig {
+
+	public static final MediaType COMPACT_JSON = MediaType.valueOf("application/vnd.iftm.compact+json");
+	public static final MediaType CBOR = MediaType.valueOf("application/cbor");
+	public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+	public static boolean isCompact(MediaType mediaType) {
+		return mediaType != null && (COMPACT_JSON.isCompatibleWith(mediaType) || CBOR.isCompatibleWith(mediaType)
+				|| SMILE.isCompatibleWith(mediaType));
+	}
+
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory())
+				.serializationInclusion(JsonInclude.Include.NON_NULL).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory())
+				.serializationInclusion(JsonInclude.Include.NON_NULL).build());
+	}
+}
@@ -0,0 +1,37 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class BatchInsertResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<BatchItemResultDTO> items;
+
+	public BatchInsertResultDTO() {
+	}
+
+	public BatchInsertResultDTO(List<BatchItemResultDTO> items) {
+		this.items = items;
+	}
+
+	public List<BatchItemResultDTO> getItems() {
+		return items;
+	}
+
+	public void setItems(List<BatchItemResultDTO> items) {
+		this.items = items;
+	}
+
+	public Integer getTotal() {
+		return items.size();
+	}
+
+	public Long getSucceeded() {
+		return items.stream().filter(x -> !BatchItemResultDTO.FAILED.equals(x.getStatus())).count();
+	}
+
+	public Long getFailed() {
+		return items.stream().filter(x -> BatchItemResultDTO.FAILED.equals(x.getStatus())).count();
+	}
+}
@@ -0,0 +1,34 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class BulkDeleteResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long deleted;
+	private Integer chunks;
+
+	public BulkDeleteResultDTO() {
+	}
+
+	public BulkDeleteResultDTO(Long deleted, Integer chunks) {
+		this.deleted = deleted;
+		this.chunks = chunks;
+	}
+
+	public Long getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(Long deleted) {
+		this.deleted = deleted;
+	}
+
+	public Integer getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(Integer chunks) {
+		this.chunks = chunks;
+	}
+}
@@ -0,0 +1,64 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+public class CacheStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long hits;
+	private Long misses;
+	private Long evictions;
+	private Long size;
+	private Double hitRate;
+
+	public CacheStatsDTO() {
+	}
+
+	public CacheStatsDTO(Long hits, Long misses, Long evictions, Long size, Double hitRate) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.size = size;
+		this.hitRate = hitRate;
+	}
+
+	public Long getHits() {
+		return hits;
+	}
+
+	public void setHits(Long hits) {
+		this.hits = hits;
+	}
+
+	public Long getMisses() {
+		return misses;
+	}
+
+	public void setMisses(Long misses) {
+		this.misses = misses;
+	}
+
+	public Long getEvictions() {
+		return evictions;
+	}
+
+	public void setEvictions(Long evictions) {
+		this.evictions = evictions;
+	}
+
+	public Long getSize() {
+		return size;
+	}
+
+	public void setSize(Long size) {
+		this.size = size;
+	}
+
+	public Double getHitRate() {
+		return hitRate;
+	}
+
+	public void setHitRate(Double hitRate) {
+		this.hitRate = hitRate;
+	}
+}
@@ -0,0 +1,39 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/*
+ * Trecho do log de alterações: as alterações a partir do offset pedido e o offset para
+ * a próxima leitura (since da chamada seguinte).
+ */
+public class ChangeLogPageDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<ChangeRecordDTO> changes;
+	private Long nextOffset;
+
+	public ChangeLogPageDTO() {
+	}
+
+	public ChangeLogPageDTO(List<ChangeRecordDTO> changes, Long nextOffset) {
+		this.changes = changes;
+		this.nextOffset = nextOffset;
+	}
+
+	public List<ChangeRecordDTO> getChanges() {
+		return changes;
+	}
+
+	public void setChanges(List<ChangeRecordDTO> changes) {
+		this.changes = changes;
+	}
+
+	public Long getNextOffset() {
+		return nextOffset;
+	}
+
+	public void setNextOffset(Long nextOffset) {
+		this.nextOffset = nextOffset;
+	}
+}
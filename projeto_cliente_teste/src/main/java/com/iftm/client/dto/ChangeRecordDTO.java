@@ -0,0 +1,69 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+ * Uma alteração do log de alterações (GET /clients/changes): o cliente como ficou após a
+ * escrita (SAVED) ou só o id removido (DELETED), com o offset do registro no log.
+ */
+public class ChangeRecordDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Long offset;
+	private String type;
+	private Long id;
+	private Instant at;
+	private ClientDTO client;
+
+	public ChangeRecordDTO() {
+	}
+
+	public ChangeRecordDTO(Long offset, String type, Long id, Instant at, ClientDTO client) {
+		this.offset = offset;
+		this.type = type;
+		this.id = id;
+		this.at = at;
+		this.client = client;
+	}
+
+	public Long getOffset() {
+		return offset;
+	}
+
+	public void setOffset(Long offset) {
+		this.offset = offset;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Instant getAt() {
+		return at;
+	}
+
+	public void setAt(Instant at) {
+		this.at = at;
+	}
+
+	public ClientDTO getClient() {
+		return client;
+	}
+
+	public void setClient(ClientDTO client) {
+		this.client = client;
+	}
+}
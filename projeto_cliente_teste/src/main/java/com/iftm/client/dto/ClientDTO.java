@@ -14,6 +14,7 @@ public class ClientDTO implements Serializable {
 	private Double income;
 	private Instant birthDate;
 	private Integer children;
+	private Long version;
 	
 	public ClientDTO() {
 	}
@@ -26,6 +27,21 @@ public class ClientDTO implements Serializable {
 		this.birthDate = birthDate;
 		this.children = children;
 	}
+
+	public ClientDTO(Long id, String name, String cpf, Double income, Instant birthDate, Integer children, Long version) {
+		this(id, name, cpf, income, birthDate, children);
+		this.version = version;
+	}
+	
+	public ClientDTO(ClientDTO other) {
+		this.id = other.getId();
+		this.name = other.getName();
+		this.cpf = other.getCpf();
+		this.income = other.getIncome();
+		this.birthDate = other.getBirthDate();
+		this.children = other.getChildren();
+		this.version = other.getVersion();
+	}
 	
 	public ClientDTO(Client entity) {
 		this.id = entity.getId();
@@ -34,6 +50,7 @@ public class ClientDTO implements Serializable {
 		this.income = entity.getIncome();
 		this.birthDate = entity.getBirthDate();
 		this.children = entity.getChildren();
+		this.version = entity.getVersion();
 	}
 
 	public Long getId() {
@@ -84,8 +101,18 @@ public class ClientDTO implements Serializable {
 		this.children = children;
 	}
 	
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+	
 	public Client toEntity() {
-		return new Client(id, name, cpf, income, birthDate, children);
+		Client entity = new Client(id, name, cpf, income, birthDate, children);
+		entity.setVersion(version);
+		return entity;
 	}
 
 }
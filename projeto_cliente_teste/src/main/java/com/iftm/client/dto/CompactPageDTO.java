@@ -0,0 +1,77 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+/*
+ * Envelope enxuto de uma Page: só o conteúdo, a posição e os totais, sem os blocos
+ * pageable/sort e os booleanos derivados (first, last, empty...) que a Page serializa.
+ * Usado nas respostas em formato compacto (ver WireFormatConfig).
+ */
+public class CompactPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content;
+	private Integer page;
+	private Integer size;
+	private Long totalElements;
+	private Integer totalPages;
+
+	public CompactPageDTO() {
+	}
+
+	public CompactPageDTO(List<T> content, Integer page, Integer size, Long totalElements, Integer totalPages) {
+		this.content = content;
+		this.page = page;
+		this.size = size;
+		this.totalElements = totalElements;
+		this.totalPages = totalPages;
+	}
+
+	public static <T> CompactPageDTO<T> of(Page<T> page) {
+		return new CompactPageDTO<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+				page.getTotalPages());
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public Integer getPage() {
+		return page;
+	}
+
+	public void setPage(Integer page) {
+		this.page = page;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Long getTotalElements() {
+		return totalElements;
+	}
+
+	public void setTotalElements(Long totalElements) {
+		this.totalElements = totalElements;
+	}
+
+	public Integer getTotalPages() {
+		return totalPages;
+	}
+
+	public void setTotalPages(Integer totalPages) {
+		this.totalPages = totalPages;
+	}
+}
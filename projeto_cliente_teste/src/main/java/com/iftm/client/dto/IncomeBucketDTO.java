@@ -0,0 +1,48 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+/*
+ * Uma faixa do histograma de income: [from, to). from nulo é a faixa aberta
+ * abaixo do primeiro limite e to nulo a faixa aberta acima do último.
+ */
+public class IncomeBucketDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Double from;
+	private Double to;
+	private Long count;
+
+	public IncomeBucketDTO() {
+	}
+
+	public IncomeBucketDTO(Double from, Double to, Long count) {
+		this.from = from;
+		this.to = to;
+		this.count = count;
+	}
+
+	public Double getFrom() {
+		return from;
+	}
+
+	public void setFrom(Double from) {
+		this.from = from;
+	}
+
+	public Double getTo() {
+		return to;
+	}
+
+	public void setTo(Double to) {
+		this.to = to;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+}
@@ -0,0 +1,45 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class IncomeReportDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private IncomeStatsDTO total;
+	private List<IncomeBucketDTO> histogram;
+	private List<IncomeStatsDTO> byChildren;
+
+	public IncomeReportDTO() {
+	}
+
+	public IncomeReportDTO(IncomeStatsDTO total, List<IncomeBucketDTO> histogram, List<IncomeStatsDTO> byChildren) {
+		this.total = total;
+		this.histogram = histogram;
+		this.byChildren = byChildren;
+	}
+
+	public IncomeStatsDTO getTotal() {
+		return total;
+	}
+
+	public void setTotal(IncomeStatsDTO total) {
+		this.total = total;
+	}
+
+	public List<IncomeBucketDTO> getHistogram() {
+		return histogram;
+	}
+
+	public void setHistogram(List<IncomeBucketDTO> histogram) {
+		this.histogram = histogram;
+	}
+
+	public List<IncomeStatsDTO> getByChildren() {
+		return byChildren;
+	}
+
+	public void setByChildren(List<IncomeStatsDTO> byChildren) {
+		this.byChildren = byChildren;
+	}
+}
@@ -0,0 +1,82 @@
+package com.iftm.client.dto;
+
+import java.io.Serializable;
+
+/*
+ * Agregados de income de um grupo de clientes. children é nulo no total geral
+ * e preenchido nas linhas da quebra por número de filhos.
+ */
+public class IncomeStatsDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private Integer children;
+	private Long count;
+	private Double sum;
+	private Double min;
+	private Double max;
+	private Double avg;
+
+	public IncomeStatsDTO() {
+	}
+
+	public IncomeStatsDTO(Long count, Double sum, Double min, Double max, Double avg) {
+		this(null, count, sum, min, max, avg);
+	}
+
+	public IncomeStatsDTO(Integer children, Long count, Double sum, Double min, Double max, Double avg) {
+		this.children = children;
+		this.count = count;
+		this.sum = sum;
+		this.min = min;
+		this.max = max;
+		this.avg = avg;
+	}
+
+	public Integer getChildren() {
+		return children;
+	}
+
+	public void setChildren(Integer children) {
+		this.children = children;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+
+	public void setCount(Long count) {
+		this.count = count;
+	}
+
+	public Double getSum() {
+		return sum;
+	}
+
+	public void setSum(Double sum) {
+		this.sum = sum;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public void setMin(Double min) {
+		this.min = min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public void setMax(Double max) {
+		this.max = max;
+	}
+
+	public Double getAvg() {
+		return avg;
+	}
+
+	public void setAvg(Double avg) {
+		this.avg = avg;
+	}
+}
@@ -4,18 +4,57 @@ import java.io.Serializable;
 import java.time.Instant;
 
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
-
+import javax.persistence.Version;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import com.iftm.client.services.search.ClientNameIndexListener;
+
+/*
+ * Índices compostos a partir dos filtros usados: faixa de income (stats, incomeGreaterThan,
+ * /clients/query) quase sempre com birthDate e/ou children junto, e faixa de birthDate com
+ * children. Com as colunas do filtro no índice, o banco descarta as linhas que não passam
+ * antes de ler a tabela (ver o EXPLAIN nos testes de integração).
+ * A paginação por keyset (KeysetRequest) ordena por (orderBy, id) e busca a partir do último
+ * par: um índice (coluna, id) por coluna ordenável faz dessa busca uma leitura de faixa, sem
+ * ordenar o resultado inteiro a cada página.
+ */
 @Entity
-@Table(name = "tb_client")
+@EntityListeners(ClientNameIndexListener.class)
+@Table(name = "tb_client", indexes = {
+		@Index(name = "idx_client_cpf", columnList = "cpf, id"),
+		@Index(name = "idx_client_income_birth_children", columnList = "income, birthDate, children"),
+		@Index(name = "idx_client_birth_children", columnList = "birthDate, children"),
+		@Index(name = "idx_client_name_id", columnList = "name, id"),
+		@Index(name = "idx_client_income_id", columnList = "income, id"),
+		@Index(name = "idx_client_birth_id", columnList = "birthDate, id"),
+		@Index(name = "idx_client_children_id", columnList = "children, id") })
 public class Client implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
+	public static final String ID_SEQUENCE = "tb_client_seq";
+	public static final int ID_BLOCK_SIZE = 50;
+	
+	/*
+	 * Sequence com pooled-lo: cada nextval reserva 50 ids (valor..valor+49),
+	 * o que permite ao Hibernate agrupar INSERTs em lote (IDENTITY impede o batch).
+	 * O ClientWriteBehind reserva seus blocos na mesma sequence.
+	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_seq")
+	@GenericGenerator(name = "client_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = ID_SEQUENCE),
+			@Parameter(name = "increment_size", value = "" + ID_BLOCK_SIZE),
+			@Parameter(name = "optimizer", value = "pooled-lo") })
 	private Long id;
 	private String name;
 	private String cpf;
@@ -23,6 +62,13 @@ public class Client implements Serializable {
 	private Instant birthDate;
 	private Integer children;
 	
+	/*
+	 * Versão para controle otimista: todo UPDATE leva "WHERE version = ?" e incrementa
+	 * o valor, então duas escritas concorrentes sobre a mesma versão não se sobrepõem.
+	 */
+	@Version
+	private Long version;
+	
 	public Client() {
 	}
 
@@ -83,6 +129,28 @@ public class Client implements Serializable {
 		this.children = children;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	/*
+	 * O CPF é gravado só com dígitos, para que as buscas por igualdade e por prefixo
+	 * usem o índice idx_client_cpf sem precisar de funções na coluna.
+	 */
+	@PrePersist
+	@PreUpdate
+	private void normalize() {
+		cpf = normalizeCpf(cpf);
+	}
+
+	public static String normalizeCpf(String cpf) {
+		return cpf == null ? null : cpf.replaceAll("[^0-9]", "");
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,11 @@
+package com.iftm.client.repositories;
+
+/*
+ * Projeção só com id e nome, usada para montar o índice de busca por nome.
+ */
+public interface ClientNameView {
+
+	Long getId();
+
+	String getName();
+}
@@ -1,19 +1,29 @@
 package com.iftm.client.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import com.iftm.client.dto.ClientDTO;
 import com.iftm.client.entities.Client;
 
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, JpaSpecificationExecutor<Client>, ClientRepositoryCustom {
     @Modifying
 	@Query("DELETE FROM Client obj WHERE "
 			+ "obj.cpf = :cpf")
@@ -34,28 +44,43 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
 
 	@Query("SELECT DISTINCT obj FROM Client obj WHERE "
 			+ "obj.income >= :salario")
+	@RowLimited
 	List<Client> findClientBySalarioAcima(double salario);
 
 	@Query("SELECT DISTINCT obj FROM Client obj WHERE "
 			+ "obj.income <= :salario")
+	@RowLimited
 	List<Client> findClientBySalarioAbaixo(double salario);
 	
+	@RowLimited
 	List<Client> findClientByIncomeBetween(double salarioMenor, double salarioMaior);
 	
+	@RowLimited
 	List<Client> findClientBybirthDateBetween(Instant DataInicio, Instant DataTermino);
 
+	@RowLimited
 	List<Client> findClientByCpfLike(String cpfParcial);
 
+	@RowLimited
 	List<Client> findClientByChildrenGreaterThanEqualOrderByNameAsc(int numeroFilhos);
 	
 	//métodos desenvolvidos em sala
 	
+	/*
+	 * DELETE em conjunto, direto no banco: não carrega as entidades nem dispara os
+	 * listeners JPA. Quem chama cuida do cache e do índice de nomes (ver ClientService).
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Client obj WHERE obj.cpf = :cpfExistente")
 	void deleteByCpf(String cpfExistente);
 
 	Optional<Client> findByCpf(String string);
 
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Client obj WHERE obj.income > :salarioI")
 	void deleteByIncomeGreaterThan(double salarioI);
 
+	@RowLimited("findSliceByIncomeGreaterThan")
 	List<Client> findByIncomeGreaterThan(double salarioI);
 	
 	List<Client> findByCpfLike(String parteCpf);
@@ -65,4 +90,129 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
 	Page<Client> findByIncomeGreaterThan(double salarioI, Pageable pageable);
 	Page<Client> findByCpfLike(String parteCpf, Pageable pageable);
 	Page<Client> findByCpfStartingWith(String parteCpf, Pageable pageable);
+
+	/*
+	 * Projeções direto em ClientDTO (constructor expression): o Hibernate não cria
+	 * entidades gerenciadas nem snapshots para dirty checking nas leituras.
+	 */
+	@Query("SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj WHERE obj.id = :id")
+	Optional<ClientDTO> findProjectedById(Long id);
+
+	@Query(value = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj",
+			countQuery = "SELECT COUNT(obj) FROM Client obj")
+	Page<ClientDTO> findAllProjected(Pageable pageable);
+
+	/*
+	 * Mesma página de findAllProjected, só com id e versão (ETag de GET /clients).
+	 */
+	@Query(value = "SELECT obj.id AS id, obj.version AS version FROM Client obj",
+			countQuery = "SELECT COUNT(obj) FROM Client obj")
+	Page<ClientVersionView> findAllVersions(Pageable pageable);
+
+	@Query(value = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj WHERE obj.income = :income",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.income = :income")
+	Page<ClientDTO> findProjectedByIncome(Double income, Pageable pageable);
+
+	@Query(value = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj WHERE obj.income > :income",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.income > :income")
+	Page<ClientDTO> findProjectedByIncomeGreaterThan(double income, Pageable pageable);
+
+	@Query(value = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj WHERE obj.cpf LIKE :cpf",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.cpf LIKE :cpf")
+	Page<ClientDTO> findProjectedByCpfLike(String cpf, Pageable pageable);
+
+	/*
+	 * Cursor JDBC para exportação: as linhas são lidas em lotes de 500
+	 * conforme o Stream é consumido. Precisa ser usado dentro de uma transação.
+	 */
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT obj FROM Client obj ORDER BY obj.id")
+	Stream<Client> streamAll();
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT obj.id AS id, obj.name AS name FROM Client obj")
+	Stream<ClientNameView> streamNames();
+
+	/*
+	 * Variantes limitadas dos métodos que devolvem List<Client>. Com Slice a consulta lê uma
+	 * linha a mais que a página (sem count); com Stream as linhas vêm do cursor JDBC em lotes
+	 * de 500 e o Stream precisa ser consumido dentro de uma transação e fechado.
+	 * Os métodos List originais, marcados com @RowLimited, passam pelo
+	 * RepositoryRowLimitPostProcessor, que usa a variante com Slice e falha se o resultado
+	 * passar de client.repository.max-list-rows.
+	 */
+	@Query("SELECT obj FROM Client obj WHERE "
+			+ "obj.income >= :salario")
+	Slice<Client> findClientBySalarioAcima(double salario, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT obj FROM Client obj WHERE "
+			+ "obj.income >= :salario")
+	Stream<Client> streamClientBySalarioAcima(double salario);
+
+	@Query("SELECT obj FROM Client obj WHERE "
+			+ "obj.income <= :salario")
+	Slice<Client> findClientBySalarioAbaixo(double salario, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query("SELECT obj FROM Client obj WHERE "
+			+ "obj.income <= :salario")
+	Stream<Client> streamClientBySalarioAbaixo(double salario);
+
+	Slice<Client> findClientByIncomeBetween(double salarioMenor, double salarioMaior, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	Stream<Client> streamClientByIncomeBetween(double salarioMenor, double salarioMaior);
+
+	Slice<Client> findClientBybirthDateBetween(Instant DataInicio, Instant DataTermino, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	Stream<Client> streamClientBybirthDateBetween(Instant DataInicio, Instant DataTermino);
+
+	Slice<Client> findClientByCpfLike(String cpfParcial, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	Stream<Client> streamClientByCpfLike(String cpfParcial);
+
+	Slice<Client> findClientByChildrenGreaterThanEqualOrderByNameAsc(int numeroFilhos, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	Stream<Client> streamClientByChildrenGreaterThanEqualOrderByNameAsc(int numeroFilhos);
+
+	// findByIncomeGreaterThan(double, Pageable) já devolve Page, que faria o count
+	Slice<Client> findSliceByIncomeGreaterThan(double salarioI, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	Stream<Client> streamByIncomeGreaterThan(double salarioI);
+
+	/*
+	 * Só a versão (@Version) de um cliente, sem carregar a entidade.
+	 */
+	@Query("SELECT obj.version FROM Client obj WHERE obj.id = :id")
+	Optional<Long> findVersionById(Long id);
+
+	/*
+	 * Remoção em lotes: um lote de ids é lido pelo Pageable e apagado com um único DELETE ... IN.
+	 */
+	@Query("SELECT obj.id FROM Client obj WHERE obj.income > :income ORDER BY obj.id")
+	List<Long> findIdsByIncomeGreaterThan(double income, Pageable pageable);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("DELETE FROM Client obj WHERE obj.id IN :ids")
+	int deleteAllByIdIn(Collection<Long> ids);
+
+	@Query(value = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj WHERE obj.birthDate BETWEEN :start AND :end",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.birthDate BETWEEN :start AND :end")
+	Page<ClientDTO> findProjectedByBirthDateBetween(Instant start, Instant end, Pageable pageable);
+
+	@Query(value = "SELECT new com.iftm.client.dto.ClientDTO(obj.id, obj.name, obj.cpf, obj.income, obj.birthDate, obj.children, obj.version) "
+			+ "FROM Client obj WHERE obj.children >= :children",
+			countQuery = "SELECT COUNT(obj) FROM Client obj WHERE obj.children >= :children")
+	Page<ClientDTO> findProjectedByChildrenGreaterThanEqual(int children, Pageable pageable);
 }
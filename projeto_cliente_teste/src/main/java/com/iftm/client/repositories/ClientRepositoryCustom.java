@@ -0,0 +1,47 @@
+package com.iftm.client.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+
+public interface ClientRepositoryCustom {
+
+	/*
+	 * Busca a página seguinte ao cursor com WHERE (chave, id) > (último valor, último id),
+	 * sem OFFSET e sem count(*): o custo da página N é o mesmo da página 0.
+	 */
+	Slice<Client> findSeek(Specification<Client> filter, KeysetRequest keysetRequest);
+
+	/*
+	 * Um único UPDATE tb_client SET <campos não nulos de changes>, version = version + 1
+	 * WHERE id = ? [AND version = changes.version]. Devolve o número de linhas alteradas
+	 * (0: id inexistente ou versão diferente). Não passa pelos listeners JPA.
+	 */
+	int patch(Long id, ClientDTO changes);
+
+	/*
+	 * Agregados calculados no banco (COUNT/SUM/MIN/MAX/AVG com GROUP BY); nenhuma
+	 * entidade é carregada. Clientes sem income contam em count, mas não nos demais.
+	 */
+	IncomeStatsDTO incomeStats(Specification<Client> filter);
+
+	List<IncomeStatsDTO> incomeStatsByChildren(Specification<Client> filter);
+
+	/*
+	 * Histograma de faixas de largura fixa começando em múltiplos de width.
+	 * Só as faixas com clientes aparecem.
+	 */
+	List<IncomeBucketDTO> incomeHistogram(Specification<Client> filter, double width);
+
+	/*
+	 * Histograma com limites escolhidos (crescentes): bounds.length + 1 faixas, incluindo
+	 * as abertas abaixo do primeiro e acima do último limite, mesmo que vazias.
+	 */
+	List<IncomeBucketDTO> incomeHistogram(Specification<Client> filter, double[] bounds);
+}
@@ -0,0 +1,208 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+
+public class ClientRepositoryCustomImpl implements ClientRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Override
+	public Slice<Client> findSeek(Specification<Client> filter, KeysetRequest keysetRequest) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Client> cq = cb.createQuery(Client.class);
+		Root<Client> root = cq.from(Client.class);
+
+		List<Predicate> predicates = filter(filter, root, cq, cb);
+		if (!keysetRequest.isFirst()) {
+			predicates.add(seekPredicate(root, cb, keysetRequest));
+		}
+
+		boolean asc = keysetRequest.getDirection() == Direction.ASC;
+		Path<Object> key = root.get(keysetRequest.getOrderBy());
+		Path<Object> id = root.get("id");
+		cq.select(root).where(predicates.toArray(new Predicate[0]));
+		cq.orderBy(asc ? cb.asc(key) : cb.desc(key), asc ? cb.asc(id) : cb.desc(id));
+
+		// uma linha a mais indica se existe próxima página, sem precisar do count(*)
+		int size = keysetRequest.getSize();
+		List<Client> rows = em.createQuery(cq).setMaxResults(size + 1).getResultList();
+		boolean hasNext = rows.size() > size;
+		if (hasNext) {
+			rows = new ArrayList<>(rows.subList(0, size));
+		}
+		return new SliceImpl<>(rows, PageRequest.of(0, size, keysetRequest.getSort()), hasNext);
+	}
+
+	@Override
+	public int patch(Long id, ClientDTO changes) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaUpdate<Client> cu = cb.createCriteriaUpdate(Client.class);
+		Root<Client> root = cu.from(Client.class);
+		if (changes.getName() != null) {
+			cu.set(root.<String>get("name"), changes.getName());
+		}
+		if (changes.getCpf() != null) {
+			cu.set(root.<String>get("cpf"), Client.normalizeCpf(changes.getCpf()));
+		}
+		if (changes.getIncome() != null) {
+			cu.set(root.<Double>get("income"), changes.getIncome());
+		}
+		if (changes.getBirthDate() != null) {
+			cu.set(root.<Instant>get("birthDate"), changes.getBirthDate());
+		}
+		if (changes.getChildren() != null) {
+			cu.set(root.<Integer>get("children"), changes.getChildren());
+		}
+		Path<Long> version = root.get("version");
+		cu.set(version, cb.sum(version, 1L));
+		Predicate byId = cb.equal(root.get("id"), id);
+		cu.where(changes.getVersion() == null ? byId : cb.and(byId, cb.equal(version, changes.getVersion())));
+		return em.createQuery(cu).executeUpdate();
+	}
+
+	@Override
+	public IncomeStatsDTO incomeStats(Specification<Client> filter) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<IncomeStatsDTO> cq = cb.createQuery(IncomeStatsDTO.class);
+		Root<Client> root = cq.from(Client.class);
+		Path<Double> income = root.get("income");
+		cq.select(cb.construct(IncomeStatsDTO.class,
+				cb.count(root), cb.sum(income), cb.min(income), cb.max(income), cb.avg(income)));
+		cq.where(filter(filter, root, cq, cb).toArray(new Predicate[0]));
+		return em.createQuery(cq).getSingleResult();
+	}
+
+	@Override
+	public List<IncomeStatsDTO> incomeStatsByChildren(Specification<Client> filter) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<IncomeStatsDTO> cq = cb.createQuery(IncomeStatsDTO.class);
+		Root<Client> root = cq.from(Client.class);
+		Path<Double> income = root.get("income");
+		Path<Integer> children = root.get("children");
+		cq.select(cb.construct(IncomeStatsDTO.class, children,
+				cb.count(root), cb.sum(income), cb.min(income), cb.max(income), cb.avg(income)));
+		cq.where(filter(filter, root, cq, cb).toArray(new Predicate[0]));
+		cq.groupBy(children).orderBy(cb.asc(children));
+		return em.createQuery(cq).getResultList();
+	}
+
+	/*
+	 * Os literais numéricos vão inline no SQL (literal_handling_mode AUTO do Hibernate),
+	 * então a expressão do SELECT e a do GROUP BY são idênticas para o banco.
+	 */
+	@Override
+	public List<IncomeBucketDTO> incomeHistogram(Specification<Client> filter, double width) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+		Root<Client> root = cq.from(Client.class);
+		Path<Double> income = root.get("income");
+		Expression<Double> bucket = cb.function("FLOOR", Double.class, cb.quot(income, width));
+		List<Predicate> predicates = filter(filter, root, cq, cb);
+		predicates.add(cb.isNotNull(income));
+		cq.multiselect(bucket, cb.count(root)).where(predicates.toArray(new Predicate[0]));
+		cq.groupBy(bucket).orderBy(cb.asc(bucket));
+
+		List<IncomeBucketDTO> buckets = new ArrayList<>();
+		for (Object[] row : em.createQuery(cq).getResultList()) {
+			double index = ((Number) row[0]).doubleValue();
+			buckets.add(new IncomeBucketDTO(index * width, (index + 1) * width, (Long) row[1]));
+		}
+		return buckets;
+	}
+
+	@Override
+	public List<IncomeBucketDTO> incomeHistogram(Specification<Client> filter, double[] bounds) {
+		CriteriaBuilder cb = em.getCriteriaBuilder();
+		CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+		Root<Client> root = cq.from(Client.class);
+		Path<Double> income = root.get("income");
+		CriteriaBuilder.Case<Integer> bucket = cb.selectCase();
+		for (int i = 0; i < bounds.length; i++) {
+			bucket = bucket.when(cb.lessThan(income, bounds[i]), i);
+		}
+		Expression<Integer> index = bucket.otherwise(bounds.length);
+		List<Predicate> predicates = filter(filter, root, cq, cb);
+		predicates.add(cb.isNotNull(income));
+		cq.multiselect(index, cb.count(root)).where(predicates.toArray(new Predicate[0]));
+		cq.groupBy(index);
+
+		long[] counts = new long[bounds.length + 1];
+		for (Object[] row : em.createQuery(cq).getResultList()) {
+			counts[((Number) row[0]).intValue()] = (Long) row[1];
+		}
+		List<IncomeBucketDTO> buckets = new ArrayList<>(counts.length);
+		for (int i = 0; i < counts.length; i++) {
+			Double from = i == 0 ? null : bounds[i - 1];
+			Double to = i == bounds.length ? null : bounds[i];
+			buckets.add(new IncomeBucketDTO(from, to, counts[i]));
+		}
+		return buckets;
+	}
+
+	private List<Predicate> filter(Specification<Client> filter, Root<Client> root, CriteriaQuery<?> cq,
+			CriteriaBuilder cb) {
+		List<Predicate> predicates = new ArrayList<>();
+		if (filter != null) {
+			Predicate predicate = filter.toPredicate(root, cq, cb);
+			if (predicate != null) {
+				predicates.add(predicate);
+			}
+		}
+		return predicates;
+	}
+
+	/*
+	 * Segue a ordenação padrão do H2, em que NULL é o menor valor:
+	 * aparece primeiro em ASC e por último em DESC.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private Predicate seekPredicate(Root<Client> root, CriteriaBuilder cb, KeysetRequest keysetRequest) {
+		Expression<Long> id = root.get("id");
+		Long lastId = keysetRequest.getLastId();
+		boolean asc = keysetRequest.getDirection() == Direction.ASC;
+
+		if ("id".equals(keysetRequest.getOrderBy())) {
+			return asc ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+		}
+
+		Expression<Comparable> key = root.get(keysetRequest.getOrderBy());
+		Comparable lastValue = (Comparable) keysetRequest.getLastValue();
+		if (asc) {
+			if (lastValue == null) {
+				return cb.or(cb.and(cb.isNull(key), cb.greaterThan(id, lastId)), cb.isNotNull(key));
+			}
+			return cb.or(cb.greaterThan(key, lastValue),
+					cb.and(cb.equal(key, lastValue), cb.greaterThan(id, lastId)));
+		}
+		if (lastValue == null) {
+			return cb.and(cb.isNull(key), cb.lessThan(id, lastId));
+		}
+		return cb.or(cb.lessThan(key, lastValue),
+				cb.and(cb.equal(key, lastValue), cb.lessThan(id, lastId)),
+				cb.isNull(key));
+	}
+}
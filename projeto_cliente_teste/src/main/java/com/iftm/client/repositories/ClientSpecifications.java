@@ -0,0 +1,93 @@
+package com.iftm.client.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.entities.Client;
+
+/*
+ * Filtros reutilizáveis sobre Client, combináveis com and/or.
+ */
+public final class ClientSpecifications {
+
+	private ClientSpecifications() {
+	}
+
+	public static Specification<Client> incomeEqual(Double income) {
+		return (root, query, cb) -> cb.equal(root.get("income"), income);
+	}
+
+	public static Specification<Client> incomeGreaterThan(double income) {
+		return (root, query, cb) -> cb.greaterThan(root.get("income"), income);
+	}
+
+	/*
+	 * min <= income <= max; um limite nulo fica em aberto.
+	 */
+	public static Specification<Client> incomeBetween(Double min, Double max) {
+		return (root, query, cb) -> {
+			if (min != null && max != null) {
+				return cb.between(root.get("income"), min, max);
+			}
+			if (min != null) {
+				return cb.greaterThanOrEqualTo(root.get("income"), min);
+			}
+			return max != null ? cb.lessThanOrEqualTo(root.get("income"), max) : null;
+		};
+	}
+
+	/*
+	 * start <= birthDate <= end; um limite nulo fica em aberto.
+	 */
+	public static Specification<Client> birthDateBetween(Instant start, Instant end) {
+		return (root, query, cb) -> {
+			if (start != null && end != null) {
+				return cb.between(root.get("birthDate"), start, end);
+			}
+			if (start != null) {
+				return cb.greaterThanOrEqualTo(root.get("birthDate"), start);
+			}
+			return end != null ? cb.lessThanOrEqualTo(root.get("birthDate"), end) : null;
+		};
+	}
+
+	/*
+	 * min <= children <= max; um limite nulo fica em aberto.
+	 */
+	public static Specification<Client> childrenBetween(Integer min, Integer max) {
+		return (root, query, cb) -> {
+			if (min != null && max != null) {
+				return cb.between(root.get("children"), min, max);
+			}
+			if (min != null) {
+				return cb.greaterThanOrEqualTo(root.get("children"), min);
+			}
+			return max != null ? cb.lessThanOrEqualTo(root.get("children"), max) : null;
+		};
+	}
+
+	public static Specification<Client> cpfLike(String cpf) {
+		return (root, query, cb) -> cb.like(root.get("cpf"), cpf);
+	}
+
+	/*
+	 * cpf começando por prefix (só dígitos, como gravado); nulo ou vazio fica em aberto.
+	 */
+	public static Specification<Client> cpfPrefix(String prefix) {
+		return (root, query, cb) -> prefix == null || prefix.isEmpty() ? null
+				: cb.like(root.get("cpf"), escapeLike(prefix) + "%", '\\');
+	}
+
+	/*
+	 * Trecho do nome, sem diferenciar maiúsculas; nulo ou vazio fica em aberto.
+	 */
+	public static Specification<Client> nameContains(String fragment) {
+		return (root, query, cb) -> fragment == null || fragment.trim().isEmpty() ? null
+				: cb.like(cb.lower(root.get("name")), "%" + escapeLike(fragment.trim().toLowerCase()) + "%", '\\');
+	}
+
+	private static String escapeLike(String text) {
+		return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+}
@@ -0,0 +1,11 @@
+package com.iftm.client.repositories;
+
+/*
+ * Projeção só com id e versão, usada para calcular o ETag de uma página sem montar os DTOs.
+ */
+public interface ClientVersionView {
+
+	Long getId();
+
+	Long getVersion();
+}
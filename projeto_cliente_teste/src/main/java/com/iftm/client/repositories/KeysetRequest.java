@@ -0,0 +1,139 @@
+package com.iftm.client.repositories;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+
+import com.iftm.client.entities.Client;
+
+/*
+ * Equivalente ao PageRequest para paginação por chave (keyset/seek).
+ * Em vez do número da página carrega o último (valor de ordenação, id) visto,
+ * codificado em um cursor opaco que o cliente devolve para buscar a próxima página.
+ */
+public class KeysetRequest {
+
+	private static final Set<String> ORDERABLE = Set.of("id", "name", "cpf", "income", "birthDate", "children");
+	private static final String SEPARATOR = "|";
+
+	private final String orderBy;
+	private final Direction direction;
+	private final int size;
+	private final Object lastValue;
+	private final Long lastId;
+
+	private KeysetRequest(String orderBy, Direction direction, int size, Object lastValue, Long lastId) {
+		this.orderBy = orderBy;
+		this.direction = direction;
+		this.size = size;
+		this.lastValue = lastValue;
+		this.lastId = lastId;
+	}
+
+	/*
+	 * Quando o cursor é informado a ordenação gravada nele prevalece sobre
+	 * orderBy/direction, para que todas as páginas sigam a mesma chave.
+	 */
+	public static KeysetRequest of(String cursor, int size, Direction direction, String orderBy) {
+		if (size < 1) {
+			throw new InvalidParameterException("linesPerPage must be greater than zero");
+		}
+		if (cursor == null || cursor.isBlank()) {
+			if (!ORDERABLE.contains(orderBy)) {
+				throw new InvalidParameterException("Invalid orderBy for keyset pagination: " + orderBy);
+			}
+			return new KeysetRequest(orderBy, direction, size, null, null);
+		}
+		return decode(cursor, size);
+	}
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	public Direction getDirection() {
+		return direction;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public Object getLastValue() {
+		return lastValue;
+	}
+
+	public Long getLastId() {
+		return lastId;
+	}
+
+	public boolean isFirst() {
+		return lastId == null;
+	}
+
+	public Sort getSort() {
+		return Sort.by(direction, orderBy).and(Sort.by(direction, "id"));
+	}
+
+	public String next(Client last) {
+		Object value = valueOf(last);
+		String raw = orderBy + SEPARATOR + direction.name() + SEPARATOR + last.getId() + SEPARATOR
+				+ (value == null ? "N" : "V" + value);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Object valueOf(Client client) {
+		switch (orderBy) {
+		case "id":
+			return client.getId();
+		case "name":
+			return client.getName();
+		case "cpf":
+			return client.getCpf();
+		case "income":
+			return client.getIncome();
+		case "birthDate":
+			return client.getBirthDate();
+		default:
+			return client.getChildren();
+		}
+	}
+
+	private static KeysetRequest decode(String cursor, int size) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\" + SEPARATOR, 4);
+			String orderBy = parts[0];
+			if (parts.length != 4 || !ORDERABLE.contains(orderBy)) {
+				throw new InvalidParameterException("Invalid cursor");
+			}
+			Direction direction = Direction.valueOf(parts[1]);
+			Long lastId = Long.valueOf(parts[2]);
+			Object lastValue = parts[3].startsWith("V") ? parseValue(orderBy, parts[3].substring(1)) : null;
+			return new KeysetRequest(orderBy, direction, size, lastValue, lastId);
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidParameterException("Invalid cursor");
+		}
+	}
+
+	private static Object parseValue(String orderBy, String value) {
+		switch (orderBy) {
+		case "id":
+			return Long.valueOf(value);
+		case "income":
+			return Double.valueOf(value);
+		case "birthDate":
+			return Instant.parse(value);
+		case "children":
+			return Integer.valueOf(value);
+		default:
+			return value;
+		}
+	}
+}
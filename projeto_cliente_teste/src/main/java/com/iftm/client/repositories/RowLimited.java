@@ -0,0 +1,25 @@
+package com.iftm.client.repositories;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * Marca um método de repositório que devolve List para o RepositoryRowLimitPostProcessor:
+ * a chamada passa pela variante com Pageable no fim, que devolve Slice (uma linha a mais,
+ * sem count), e falha acima de client.repository.max-list-rows. Os demais métodos List não
+ * são alterados.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RowLimited {
+
+	/*
+	 * Nome da variante com Slice; vazio = o mesmo nome do método marcado. Necessário quando
+	 * o nome já tem um overload com Pageable que devolve Page.
+	 */
+	String value() default "";
+}
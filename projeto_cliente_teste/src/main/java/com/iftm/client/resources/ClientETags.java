@@ -0,0 +1,69 @@
+package com.iftm.client.resources;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * ETags dos GETs de clientes, derivados da coluna version (@Version):
+ * - um cliente: W/"id-versão";
+ * - uma página: MD5 da posição da página (número, tamanho, ordenação), do total de
+ *   elementos e dos pares id:versão do conteúdo, na ordem. Muda quando um cliente da
+ *   página é alterado, quando entra ou sai alguém dela, ou quando o total muda.
+ * Os mesmos valores saem dos DTOs completos e das projeções só com id e versão.
+ * São fracos (W/): identificam a versão dos dados, não os bytes, que mudam com o formato
+ * negociado (JSON, CBOR, Smile) e com o gzip; com ETag forte o Tomcat não comprime a resposta.
+ */
+final class ClientETags {
+
+	private ClientETags() {
+	}
+
+	static String of(Long id, Long version) {
+		return "W/\"" + id + "-" + (version == null ? 0L : version) + "\"";
+	}
+
+	static String of(ClientDTO dto) {
+		return of(dto.getId(), dto.getVersion());
+	}
+
+	static <T> String ofPage(Page<T> page, Function<T, Long> id, Function<T, Long> version) {
+		StringBuilder key = new StringBuilder()
+				.append(page.getNumber()).append('/').append(page.getSize()).append('/').append(page.getSort())
+				.append('/').append(page.getTotalElements()).append(':');
+		List<T> content = page.getContent();
+		for (T item : content) {
+			Long v = version.apply(item);
+			key.append(id.apply(item)).append('-').append(v == null ? 0L : v).append(',');
+		}
+		return "W/\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+
+	/*
+	 * If-None-Match: lista de ETags separados por vírgula ou "*". A comparação é a fraca
+	 * (RFC 7232), ignorando o prefixo W/.
+	 */
+	static boolean matches(String ifNoneMatch, String etag) {
+		if (!StringUtils.hasText(ifNoneMatch)) {
+			return false;
+		}
+		String opaque = opaque(etag);
+		for (String candidate : ifNoneMatch.split(",")) {
+			candidate = opaque(candidate.trim());
+			if (candidate.equals("*") || candidate.equals(opaque)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String opaque(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+}
@@ -1,26 +1,66 @@
 package com.iftm.client.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort.Direction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import com.iftm.client.config.RequestExecutor;
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.BulkDeleteResultDTO;
+import com.iftm.client.dto.CacheStatsDTO;
+import com.iftm.client.dto.ChangeLogPageDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeReportDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientVersionView;
+import com.iftm.client.repositories.KeysetRequest;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.analytics.ClientColumnFilter;
+import com.iftm.client.services.changelog.ClientChangeLog;
+import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.export.ClientExportSnapshot;
 
 @RestController
 @RequestMapping(value = "/clients")
@@ -28,33 +68,95 @@ public class ClientResource {
 	
 	@Autowired
 	private ClientService service;
+	
+	/* Mudança
+	 * As chamadas ao service passam pelo RequestExecutor (client.execution.mode): no thread
+	 * da requisição (padrão) ou fora dele, liberando o Tomcat enquanto o banco responde.
+	 * A leitura dos parâmetros da requisição fica fora das lambdas.
+	 */
+	@Autowired
+	private RequestExecutor executor;
+	
+	@Value("${client.stats.bucket-width:1000}")
+	private double statsBucketWidth;
+	
+	@Autowired
+	private ClientExportSnapshot snapshots;
+	
+	@Autowired
+	private ObjectProvider<ClientChangeLog> changeLog;
+	
+	@Value("${client.changelog.max-records:1000}")
+	private int changesMaxRecords;
+	
+	@Value("${client.changelog.max-wait-ms:30000}")
+	private long changesMaxWaitMs;
+	
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
 
+	/* Mudança
+	 * ETag da página (ver ClientETags). Com If-None-Match, a página é conferida antes só
+	 * com ids e versões; se não mudou, a resposta é 304 sem montar nem serializar os DTOs.
+	 */
 	@GetMapping
-	public ResponseEntity<Page<ClientDTO>> findAll(
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findAll(
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
-			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) 
 	{
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findAllPaged(pageRequest);
-		return ResponseEntity.ok().body(list);
+		return executor.submit(() -> {
+			if (ifNoneMatch != null) {
+				String current = ClientETags.ofPage(service.findAllVersions(pageRequest), ClientVersionView::getId,
+						ClientVersionView::getVersion);
+				if (ClientETags.matches(ifNoneMatch, current)) {
+					return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).<Page<ClientDTO>>build();
+				}
+			}
+			Page<ClientDTO> result = service.findAllPaged(pageRequest);
+			return ResponseEntity.ok().eTag(ClientETags.ofPage(result, ClientDTO::getId, ClientDTO::getVersion))
+					.body(result);
+		});
 	}
 	
 	/*
 	 * Mudança: URI
+	 * Mudança: ETag "id-versão"; com If-None-Match, a versão é conferida antes (cache ou
+	 * consulta só da coluna version) e, se não mudou, a resposta é 304 sem o DTO.
 	 */
 	@GetMapping(value = "/id/{id}")
-	public ResponseEntity<ClientDTO> findById(@PathVariable Long id) {
-		ClientDTO dto = service.findById(id);
-		return ResponseEntity.ok().body(dto);
+	public CompletableFuture<ResponseEntity<ClientDTO>> findById(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return executor.submit(() -> {
+			if (ifNoneMatch != null) {
+				Optional<String> current = service.findVersion(id).map(version -> ClientETags.of(id, version));
+				if (current.isPresent() && ClientETags.matches(ifNoneMatch, current.get())) {
+					return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current.get()).<ClientDTO>build();
+				}
+			}
+			ClientDTO dto = service.findById(id);
+			return ResponseEntity.ok().eTag(ClientETags.of(id, dto.getVersion())).body(dto);
+		});
+	}
+	
+	/* Mudança
+	 * Novo método: contadores do cache de findById (acertos, faltas, remoções)
+	 */
+	@GetMapping(value = "/cache/stats")
+	public ResponseEntity<CacheStatsDTO> cacheStats() {
+		return ResponseEntity.ok().body(service.cacheStats());
 	}
 	
 	/* Mudança
 	 * Novo método: retorna uma lista paginada baseada no salário
 	 */
 	@GetMapping(value = "/income/")
-	public ResponseEntity<Page<ClientDTO>> findByIncome(
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByIncome(
 			@RequestParam(value = "income", defaultValue = "0") Double income,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
@@ -62,15 +164,14 @@ public class ClientResource {
 			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
 	{
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByIncome(pageRequest, income);
-		return ResponseEntity.ok().body(list);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByIncome(pageRequest, income)));
 	}
 	
 	/* Mudança
 	 * Novo método: retorna uma lista paginada baseada no salário
 	 */
 	@GetMapping(value = "/incomeGreaterThan/")
-	public ResponseEntity<Page<ClientDTO>> findByIncomeGreaterThan(
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByIncomeGreaterThan(
 			@RequestParam(value = "income", defaultValue = "0") Double income,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
@@ -78,47 +179,355 @@ public class ClientResource {
 			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
 	{
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByIncomeGreaterThan(pageRequest, income);
-		return ResponseEntity.ok().body(list);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByIncomeGreaterThan(pageRequest, income)));
 	}
 	
 	/* Mudança
-	 * Novo método: retorna uma lista paginada baseada no cpf com like
+	 * Novo método: retorna uma lista paginada baseada no cpf com like.
+	 * Por padrão busca por prefixo (cpf%), que usa o índice da coluna;
+	 * a busca por trecho (%cpf%) percorre a tabela toda e só é feita com mode=infix.
 	 */
 	@GetMapping(value = "/cpf/")
-	public ResponseEntity<Page<ClientDTO>> findByCPFLike(
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByCPFLike(
 			@RequestParam(value = "cpf", defaultValue = "") String cpf,
+			@RequestParam(value = "mode", defaultValue = "prefix") String mode,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
 			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
 			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
 			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
 	{
 		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
-		Page<ClientDTO> list = service.findByCpfLike(pageRequest, "%"+cpf+"%");
-		return ResponseEntity.ok().body(list);
+		String pattern = cpfPattern(cpf, mode);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByCpfLike(pageRequest, pattern)));
 	}
 	
-	@PostMapping
-	public ResponseEntity<ClientDTO> insert(@RequestBody ClientDTO dto) {
-		try {
-			dto = service.insert(dto);
-			URI uri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
-				.buildAndExpand(dto.getId()).toUri();
-			return ResponseEntity.created(uri).body(dto);
-		}catch(InvalidParameterException e) {
-			return ResponseEntity.unprocessableEntity().build();
+	/* Mudança
+	 * Novo método: retorna uma lista paginada de clientes nascidos entre start e end (ISO-8601)
+	 */
+	@GetMapping(value = "/birthDate/")
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByBirthDateBetween(
+			@RequestParam(value = "start") Instant start,
+			@RequestParam(value = "end") Instant end,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByBirthDateBetween(pageRequest, start, end)));
+	}
+	
+	/* Mudança
+	 * Novo método: retorna uma lista paginada de clientes com pelo menos `children` filhos
+	 */
+	@GetMapping(value = "/children/")
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByChildrenGreaterThanEqual(
+			@RequestParam(value = "children", defaultValue = "0") Integer children,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByChildrenGreaterThanEqual(pageRequest, children)));
+	}
+	
+	/* Mudança
+	 * Novo método: busca por nome (sem acento, aproximada), ordenada por relevância
+	 */
+	@GetMapping(value = "/search")
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> searchByName(
+			@RequestParam(value = "name", defaultValue = "") String name,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage);
+		return executor.submit(() -> ResponseEntity.ok().body(service.searchByName(pageRequest, name)));
+	}
+	
+	/* Mudança
+	 * Novo método: paginação por cursor (keyset), sem offset e sem count
+	 */
+	@GetMapping(value = "/keyset")
+	public CompletableFuture<ResponseEntity<CursorPageDTO<ClientDTO>>> findAllKeyset(
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		KeysetRequest keysetRequest = KeysetRequest.of(cursor, linesPerPage, Direction.valueOf(direction), orderBy);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findAllKeyset(keysetRequest)));
+	}
+	
+	@GetMapping(value = "/income/keyset")
+	public CompletableFuture<ResponseEntity<CursorPageDTO<ClientDTO>>> findByIncomeKeyset(
+			@RequestParam(value = "income", defaultValue = "0") Double income,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		KeysetRequest keysetRequest = KeysetRequest.of(cursor, linesPerPage, Direction.valueOf(direction), orderBy);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByIncomeKeyset(keysetRequest, income)));
+	}
+	
+	@GetMapping(value = "/incomeGreaterThan/keyset")
+	public CompletableFuture<ResponseEntity<CursorPageDTO<ClientDTO>>> findByIncomeGreaterThanKeyset(
+			@RequestParam(value = "income", defaultValue = "0") Double income,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		KeysetRequest keysetRequest = KeysetRequest.of(cursor, linesPerPage, Direction.valueOf(direction), orderBy);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByIncomeGreaterThanKeyset(keysetRequest, income)));
+	}
+	
+	@GetMapping(value = "/cpf/keyset")
+	public CompletableFuture<ResponseEntity<CursorPageDTO<ClientDTO>>> findByCPFLikeKeyset(
+			@RequestParam(value = "cpf", defaultValue = "") String cpf,
+			@RequestParam(value = "mode", defaultValue = "prefix") String mode,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		KeysetRequest keysetRequest = KeysetRequest.of(cursor, linesPerPage, Direction.valueOf(direction), orderBy);
+		String pattern = cpfPattern(cpf, mode);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByCpfLikeKeyset(keysetRequest, pattern)));
+	}
+	
+	/* Mudança
+	 * Novo método: estatísticas de income (totais, histograma e por número de filhos),
+	 * calculadas com GROUP BY no banco. bounds=1000,5000,10000 define as faixas;
+	 * sem bounds, as faixas têm largura bucketWidth.
+	 */
+	@GetMapping(value = "/stats/income")
+	public CompletableFuture<ResponseEntity<IncomeReportDTO>> incomeStats(
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome,
+			@RequestParam(value = "bucketWidth", required = false) Double bucketWidth,
+			@RequestParam(value = "bounds", required = false) double[] bounds) 
+	{
+		double width = bucketWidth != null ? bucketWidth : statsBucketWidth;
+		return executor.submit(() -> ResponseEntity.ok().body(service.incomeStats(minIncome, maxIncome, width, bounds)));
+	}
+	
+	/* Mudança
+	 * Novo método: filtro combinado em uma só chamada. Qualquer combinação de faixa de income,
+	 * faixa de birthDate (ISO-8601), mínimo de filhos, prefixo de cpf e trecho do nome;
+	 * parâmetros ausentes não filtram.
+	 */
+	@GetMapping(value = "/query")
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByQuery(
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome,
+			@RequestParam(value = "birthStart", required = false) Instant birthStart,
+			@RequestParam(value = "birthEnd", required = false) Instant birthEnd,
+			@RequestParam(value = "minChildren", required = false) Integer minChildren,
+			@RequestParam(value = "cpf", required = false) String cpf,
+			@RequestParam(value = "name", required = false) String name,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage,
+			@RequestParam(value = "direction", defaultValue = "ASC") String direction,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy) 
+	{
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage, Direction.valueOf(direction), orderBy);
+		ClientColumnFilter ranges = ClientColumnFilter.of(minIncome, maxIncome, birthStart, birthEnd, minChildren, null);
+		String cpfPrefix = Client.normalizeCpf(cpf);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByQuery(pageRequest, ranges, cpfPrefix, name)));
+	}
+	
+	/* Mudança
+	 * Novo método: count/sum/min/max/avg de income por faixas de income, birthDate (ISO-8601)
+	 * e children, todas inclusivas e opcionais. Com client.analytics.column-store.enabled,
+	 * calculado sobre as colunas em memória; senão, no banco.
+	 */
+	@GetMapping(value = "/analytics/income")
+	public CompletableFuture<ResponseEntity<IncomeStatsDTO>> incomeStatsScan(
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome,
+			@RequestParam(value = "birthStart", required = false) Instant birthStart,
+			@RequestParam(value = "birthEnd", required = false) Instant birthEnd,
+			@RequestParam(value = "minChildren", required = false) Integer minChildren,
+			@RequestParam(value = "maxChildren", required = false) Integer maxChildren) 
+	{
+		ClientColumnFilter filter = ClientColumnFilter.of(minIncome, maxIncome, birthStart, birthEnd, minChildren, maxChildren);
+		return executor.submit(() -> ResponseEntity.ok().body(service.incomeStatsScan(filter)));
+	}
+	
+	/* Mudança
+	 * Novo método: página de clientes que passam em todas as faixas (income, birthDate e
+	 * children, inclusivas e opcionais), por nome. Com client.analytics.column-store.enabled,
+	 * a varredura das colunas é dividida entre os núcleos (client.analytics.parallelism);
+	 * senão, a consulta vai para o banco como em /clients/query.
+	 */
+	@GetMapping(value = "/analytics/query")
+	public CompletableFuture<ResponseEntity<Page<ClientDTO>>> findByColumnFilter(
+			@RequestParam(value = "minIncome", required = false) Double minIncome,
+			@RequestParam(value = "maxIncome", required = false) Double maxIncome,
+			@RequestParam(value = "birthStart", required = false) Instant birthStart,
+			@RequestParam(value = "birthEnd", required = false) Instant birthEnd,
+			@RequestParam(value = "minChildren", required = false) Integer minChildren,
+			@RequestParam(value = "maxChildren", required = false) Integer maxChildren,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "linesPerPage", defaultValue = "12") Integer linesPerPage) 
+	{
+		ClientColumnFilter filter = ClientColumnFilter.of(minIncome, maxIncome, birthStart, birthEnd, minChildren, maxChildren);
+		PageRequest pageRequest = PageRequest.of(page, linesPerPage);
+		return executor.submit(() -> ResponseEntity.ok().body(service.findByColumnFilter(pageRequest, filter)));
+	}
+	
+	/* Mudança
+	 * Novo método: alterações de clientes (ClientChangeLog) a partir do offset since, que é o
+	 * nextOffset da resposta anterior (sem since, do início do log retido). Sem alterações
+	 * novas, a resposta espera até waitMs por uma (long-poll) e então volta vazia.
+	 * 404 com client.changelog.enabled desligado; 422 para um offset inválido ou já descartado.
+	 */
+	@GetMapping(value = "/changes")
+	public CompletableFuture<ResponseEntity<ChangeLogPageDTO>> changes(
+			@RequestParam(value = "since", required = false) Long since,
+			@RequestParam(value = "limit", defaultValue = "1000") Integer limit,
+			@RequestParam(value = "waitMs", defaultValue = "0") Long waitMs) 
+	{
+		ClientChangeLog log = changeLog.getIfAvailable();
+		if (log == null) {
+			throw new ResourceNotFoundException("Change log is disabled");
+		}
+		if (limit < 1 || limit > changesMaxRecords) {
+			throw new InvalidParameterException("limit must be between 1 and " + changesMaxRecords);
 		}
+		if (waitMs < 0 || waitMs > changesMaxWaitMs) {
+			throw new InvalidParameterException("waitMs must be between 0 and " + changesMaxWaitMs);
+		}
+		long from = since != null ? since : log.getStartOffset();
+		return log.poll(from, limit, waitMs).thenApply(page -> ResponseEntity.ok().body(page));
+	}
+	
+	/* Mudança
+	 * Novo método: exporta a tabela inteira em NDJSON, escrevendo conforme lê do banco
+	 */
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> export() {
+		StreamingResponseBody body = out -> service.exportAll(out);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+	
+	/* Mudança
+	 * Novo método: a última cópia da exportação gravada em disco (ClientExportSnapshot), sem
+	 * acessar o banco. Para quem aceita gzip, o arquivo vai como está (Content-Encoding: gzip)
+	 * pelo sendfile do Tomcat, que usa FileChannel.transferTo direto para o socket; sem suporte
+	 * a sendfile, o próprio handler faz o transferTo. Sem gzip, o arquivo é descomprimido
+	 * enquanto é enviado. 404 enquanto não houver cópia.
+	 */
+	@GetMapping(value = "/export/snapshot")
+	public void exportSnapshot(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		ClientExportSnapshot.Snapshot snapshot = snapshots.current()
+				.orElseThrow(() -> new ResourceNotFoundException("Export snapshot not available"));
+		response.setHeader(HttpHeaders.ETAG, snapshot.getETag());
+		response.setDateHeader(HttpHeaders.LAST_MODIFIED, snapshot.getCreatedAt().toEpochMilli());
+		response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (ClientETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot.getETag())) {
+			response.setStatus(HttpStatus.NOT_MODIFIED.value());
+			return;
+		}
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+		if (acceptEncoding == null || !acceptEncoding.toLowerCase().contains("gzip")) {
+			try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot.getFile()), 1 << 16)) {
+				StreamUtils.copy(in, response.getOutputStream());
+			}
+			return;
+		}
+		response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+		response.setContentLengthLong(snapshot.getSize());
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			request.setAttribute(SENDFILE_FILENAME, snapshot.getFile().toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START, 0L);
+			request.setAttribute(SENDFILE_END, snapshot.getSize());
+			return;
+		}
+		try (FileChannel file = FileChannel.open(snapshot.getFile(), StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = 0;
+			while (position < snapshot.getSize()) {
+				position += file.transferTo(position, snapshot.getSize() - position, out);
+			}
+		}
+	}
+	
+	/* Mudança
+	 * Com client.write-behind.enabled, um cliente novo responde 202 (aceito, com id e Location)
+	 * antes de chegar ao banco; com a fila cheia, 429.
+	 */
+	@PostMapping
+	public CompletableFuture<ResponseEntity<ClientDTO>> insert(@RequestBody ClientDTO dto) {
+		UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+		return executor.submit(() -> {
+			try {
+				Optional<ClientDTO> accepted = service.insertWriteBehind(dto);
+				if (accepted.isPresent()) {
+					URI uri = uriBuilder.buildAndExpand(accepted.get().getId()).toUri();
+					return ResponseEntity.accepted().location(uri).body(accepted.get());
+				}
+				ClientDTO created = service.insert(dto);
+				URI uri = uriBuilder.buildAndExpand(created.getId()).toUri();
+				return ResponseEntity.created(uri).body(created);
+			}catch(InvalidParameterException e) {
+				return ResponseEntity.unprocessableEntity().build();
+			}
+		});
+	}
+	
+	/* Mudança
+	 * Novo método: carga em lote; cada linha volta com seu próprio resultado
+	 */
+	@PostMapping(value = "/batch")
+	public CompletableFuture<ResponseEntity<BatchInsertResultDTO>> insertAll(@RequestBody List<ClientDTO> dtos) {
+		return executor.submit(() -> ResponseEntity.ok().body(service.insertAll(dtos)));
 	}
 	
 	@PutMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> update(@PathVariable Long id, @RequestBody ClientDTO dto) {
-		dto = service.update(id, dto);
-		return ResponseEntity.ok().body(dto);
+	public CompletableFuture<ResponseEntity<ClientDTO>> update(@PathVariable Long id, @RequestBody ClientDTO dto) {
+		return executor.submit(() -> ResponseEntity.ok().body(service.update(id, dto)));
+	}
+	
+	/* Mudança
+	 * Novo método: atualização parcial (só os campos enviados) com um único UPDATE.
+	 * Enviando version, a escrita só acontece se ninguém alterou o cliente desde a leitura (senão 409).
+	 */
+	@PatchMapping(value = "/{id}")
+	public CompletableFuture<ResponseEntity<ClientDTO>> patch(@PathVariable Long id, @RequestBody ClientDTO dto) {
+		return executor.submit(() -> ResponseEntity.ok().body(service.patch(id, dto)));
 	}
 	
 	@DeleteMapping(value = "/{id}")
-	public ResponseEntity<ClientDTO> delete(@PathVariable Long id) {
-		service.delete(id);
-		return ResponseEntity.noContent().build();
+	public CompletableFuture<ResponseEntity<ClientDTO>> delete(@PathVariable Long id) {
+		return executor.submit(() -> {
+			service.delete(id);
+			return ResponseEntity.noContent().build();
+		});
+	}
+	
+	/* Mudança
+	 * Novo método (administração): remove em lotes todos os clientes com income acima de
+	 * incomeAbove e devolve quantas linhas foram apagadas. O parâmetro é obrigatório.
+	 */
+	@DeleteMapping
+	public CompletableFuture<ResponseEntity<BulkDeleteResultDTO>> deleteByIncomeAbove(
+			@RequestParam(value = "incomeAbove") Double incomeAbove) 
+	{
+		return executor.submit(() -> ResponseEntity.ok().body(service.deleteByIncomeGreaterThan(incomeAbove)));
+	}
+	
+	private String cpfPattern(String cpf, String mode) {
+		String digits = Client.normalizeCpf(cpf);
+		if ("infix".equals(mode)) {
+			return "%" + digits + "%";
+		}
+		if (!"prefix".equals(mode)) {
+			throw new InvalidParameterException("Invalid mode: " + mode);
+		}
+		return digits + "%";
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.iftm.client.resources;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import com.iftm.client.config.WireFormatConfig;
+import com.iftm.client.dto.CompactPageDTO;
+
+/*
+ * Quando o formato negociado é um dos compactos (WireFormatConfig), a Page devolvida
+ * pelo handler é escrita como CompactPageDTO. No JSON padrão nada muda.
+ */
+@ControllerAdvice(assignableTypes = ClientResource.class)
+public class CompactPageResponseAdvice implements ResponseBodyAdvice<Object> {
+
+	@Override
+	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+			ServerHttpResponse response) {
+		if (body instanceof Page && WireFormatConfig.isCompact(selectedContentType)) {
+			return CompactPageDTO.of((Page<?>) body);
+		}
+		return body;
+	}
+}
@@ -1,22 +1,36 @@
 package com.iftm.client.resources.exceptions;
 
+import java.security.InvalidParameterException;
 import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.iftm.client.services.exceptions.DatabaseException;
+import com.iftm.client.services.exceptions.RateLimitExceededException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.exceptions.RowLimitExceededException;
+import com.iftm.client.services.exceptions.VersionConflictException;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @ControllerAdvice
 public class ResourceExceptionHandler {
 	
+	@Autowired
+	private MeterRegistry registry;
+	
 	@ExceptionHandler(ResourceNotFoundException.class)
 	public ResponseEntity<StandardError> entityNotFound(ResourceNotFoundException e, HttpServletRequest request) {
+		count("entityNotFound", e);
 		StandardError err = new StandardError();
 		err.setTimestamp(Instant.now());
 		err.setStatus(HttpStatus.NOT_FOUND.value());
@@ -28,6 +42,7 @@ public class ResourceExceptionHandler {
 	
 	@ExceptionHandler(DatabaseException.class)
 	public ResponseEntity<StandardError> database(DatabaseException e, HttpServletRequest request) {
+		count("database", e);
 		StandardError err = new StandardError();
 		err.setTimestamp(Instant.now());
 		err.setStatus(HttpStatus.BAD_REQUEST.value());
@@ -36,5 +51,84 @@ public class ResourceExceptionHandler {
 		err.setPath(request.getRequestURI());
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(err);
 	}
+	
+	@ExceptionHandler(InvalidParameterException.class)
+	public ResponseEntity<StandardError> invalidParameter(InvalidParameterException e, HttpServletRequest request) {
+		count("invalidParameter", e);
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+		err.setError("Invalid parameter");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(err);
+	}
+	
+	/* Mudança
+	 * Consulta sem paginação acima de client.repository.max-list-rows: limite do servidor,
+	 * não erro de dado; quem chama deve usar a variante paginada
+	 */
+	@ExceptionHandler(RowLimitExceededException.class)
+	public ResponseEntity<StandardError> rowLimitExceeded(RowLimitExceededException e, HttpServletRequest request) {
+		count("rowLimitExceeded", e);
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+		err.setError("Too many rows");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(err);
+	}
+	
+	/* Mudança
+	 * Versão enviada diferente da gravada, ou escrita concorrente detectada no flush
+	 */
+	@ExceptionHandler({ VersionConflictException.class, OptimisticLockingFailureException.class })
+	public ResponseEntity<StandardError> versionConflict(RuntimeException e, HttpServletRequest request) {
+		count("versionConflict", e);
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.CONFLICT.value());
+		err.setError("Version conflict");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(err);
+	}
+	
+	/* Mudança
+	 * Pool de client.execution.mode=async cheio: recusa na hora em vez de enfileirar sem limite
+	 */
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<StandardError> rejected(RejectedExecutionException e, HttpServletRequest request) {
+		count("rejected", e);
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		err.setError("Service busy");
+		err.setMessage("Too many concurrent requests");
+		err.setPath(request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(err);
+	}
+	
+	/* Mudança
+	 * Chamador acima de client.rate-limit.*: Retry-After em segundos, arredondado para cima
+	 */
+	@ExceptionHandler(RateLimitExceededException.class)
+	public ResponseEntity<StandardError> rateLimited(RateLimitExceededException e, HttpServletRequest request) {
+		count("rateLimited", e);
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		err.setError("Too many requests");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURI());
+		long retryAfterSeconds = Math.max(1, (e.getRetryAfter().toMillis() + 999) / 1000);
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds)).body(err);
+	}
+	
+	private void count(String handler, Exception e) {
+		registry.counter("client.exceptions", "handler", handler, "exception", e.getClass().getSimpleName()).increment();
+	}
 
 }
@@ -1,23 +1,70 @@
 package com.iftm.client.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.BatchItemResultDTO;
+import com.iftm.client.dto.BulkDeleteResultDTO;
+import com.iftm.client.dto.CacheStatsDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
+import com.iftm.client.dto.IncomeBucketDTO;
+import com.iftm.client.dto.IncomeReportDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.repositories.ClientSpecifications;
+import com.iftm.client.repositories.ClientVersionView;
+import com.iftm.client.repositories.KeysetRequest;
+import com.iftm.client.services.analytics.ClientColumnFilter;
+import com.iftm.client.services.analytics.ClientColumnStore;
+import com.iftm.client.services.analytics.ColumnQueryResult;
+import com.iftm.client.services.cache.ClientCache;
+import com.iftm.client.services.cache.SingleFlight;
+import com.iftm.client.services.search.NameSearchIndex;
 import com.iftm.client.services.exceptions.DatabaseException;
 import com.iftm.client.services.exceptions.ResourceNotFoundException;
+import com.iftm.client.services.events.ClientChangeEvent;
+import com.iftm.client.services.exceptions.VersionConflictException;
 import com.iftm.client.services.util.Validador;
+import com.iftm.client.services.writebehind.ClientWriteBehind;
 
 @Service
 public class ClientService {
@@ -28,61 +75,360 @@ public class ClientService {
 	@Autowired
 	private Validador validador;
 	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	@Autowired
+	private ClientCache cache;
+	
+	@Autowired
+	private NameSearchIndex nameIndex;
+	
+	@Autowired
+	private ApplicationEventPublisher events;
+	
+	@Autowired
+	private ObjectProvider<ClientColumnStore> columnStore;
+	
+	@Autowired
+	private ObjectProvider<ClientWriteBehind> writeBehind;
+	
+	private final SingleFlight<Long, ClientDTO> idLookups = new SingleFlight<>();
+	private final SingleFlight<List<Object>, Page<ClientDTO>> cpfLookups = new SingleFlight<>();
+	
+	@Value("${client.export.flush-every:500}")
+	private int exportFlushEvery;
+	
+	@Value("${client.batch.chunk-size:500}")
+	private int batchChunkSize;
+	
+	@Value("${client.bulk-delete.chunk-size:1000}")
+	private int bulkDeleteChunkSize;
+	
+	@Value("${client.stats.max-buckets:1000}")
+	private int statsMaxBuckets;
+	
+	@Value("${client.analytics.max-rows:10000}")
+	private int analyticsMaxRows;
+	
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findAllPaged(PageRequest pageRequest) {
-		Page<Client> list =  repository.findAll(pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		return repository.findAllProjected(pageRequest);
 	}
 	
-	@Transactional(readOnly = true)
+	/*
+	 * Sem @Transactional: em um acerto do cache nenhuma transação/conexão é aberta;
+	 * na falta, a consulta usa a transação somente leitura do próprio repositório.
+	 * Faltas concorrentes do mesmo id fazem uma única consulta, inclusive com o cache
+	 * desligado (client.cache.maximum-size=0), quando o Caffeine não as agrupa.
+	 */
 	public ClientDTO findById(Long id) {
-		Optional<Client> obj = repository.findById(id);
-		Client entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-		return new ClientDTO(entity);
+		return cache.get(id, key -> idLookups.execute(key, () -> {
+			Optional<ClientDTO> obj = repository.findProjectedById(key);
+			return obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
+		}));
+	}
+	
+	/*
+	 * Versão atual do cliente, para responder If-None-Match sem montar o DTO: a do cache,
+	 * se estiver lá, senão uma consulta só da coluna version.
+	 */
+	public Optional<Long> findVersion(Long id) {
+		Long cached = cache.version(id);
+		return cached != null ? Optional.of(cached) : repository.findVersionById(id);
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientVersionView> findAllVersions(PageRequest pageRequest) {
+		return repository.findAllVersions(pageRequest);
+	}
+	
+	public CacheStatsDTO cacheStats() {
+		return cache.stats();
 	}
 	
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findByIncome(PageRequest pageRequest, Double income) {
-		Page<Client> list = repository.findByIncome(income, pageRequest);		
-		return list.map(x -> new ClientDTO(x));
+		return repository.findProjectedByIncome(income, pageRequest);
 	}
 
 	@Transactional(readOnly = true)
 	public Page<ClientDTO> findByIncomeGreaterThan(PageRequest pageRequest, double income) {
-		Page<Client> list = repository.findByIncomeGreaterThan(income, pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		return repository.findProjectedByIncomeGreaterThan(income, pageRequest);
 	}
 	
-	@Transactional(readOnly = true)
+	/*
+	 * Buscas iguais (mesmo padrão e mesma página) que chegam juntas compartilham uma única
+	 * consulta. Sem @Transactional aqui: quem espera não abre transação; a consulta usa a
+	 * transação somente leitura do próprio repositório.
+	 */
 	public Page<ClientDTO> findByCpfLike(PageRequest pageRequest, String cpf) {
-		Page<Client> list = repository.findByCpfLike(cpf, pageRequest);
-		return list.map(x -> new ClientDTO(x));
+		return cpfLookups.execute(Arrays.asList(cpf, pageRequest),
+				() -> repository.findProjectedByCpfLike(cpf, pageRequest));
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByBirthDateBetween(PageRequest pageRequest, Instant start, Instant end) {
+		return repository.findProjectedByBirthDateBetween(start, end, pageRequest);
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByChildrenGreaterThanEqual(PageRequest pageRequest, int children) {
+		return repository.findProjectedByChildrenGreaterThanEqual(children, pageRequest);
+	}
+	
+	/*
+	 * Os ids vêm ordenados por relevância do índice de trigramas em memória;
+	 * do banco são lidas apenas as linhas da página pedida.
+	 */
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> searchByName(PageRequest pageRequest, String name) {
+		List<Long> ids = nameIndex.search(name);
+		int from = (int) Math.min(pageRequest.getOffset(), ids.size());
+		List<Long> pageIds = ids.subList(from, Math.min(from + pageRequest.getPageSize(), ids.size()));
+		Map<Long, Client> rows = repository.findAllById(pageIds).stream()
+				.collect(Collectors.toMap(Client::getId, Function.identity()));
+		List<ClientDTO> content = pageIds.stream().map(rows::get).filter(Objects::nonNull)
+				.map(x -> new ClientDTO(x)).collect(Collectors.toList());
+		return new PageImpl<>(content, pageRequest, ids.size());
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findAllKeyset(KeysetRequest keysetRequest) {
+		return findSeek(null, keysetRequest);
+	}
+
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findByIncomeKeyset(KeysetRequest keysetRequest, Double income) {
+		return findSeek(ClientSpecifications.incomeEqual(income), keysetRequest);
+	}
+
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findByIncomeGreaterThanKeyset(KeysetRequest keysetRequest, double income) {
+		return findSeek(ClientSpecifications.incomeGreaterThan(income), keysetRequest);
+	}
+
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ClientDTO> findByCpfLikeKeyset(KeysetRequest keysetRequest, String cpf) {
+		return findSeek(ClientSpecifications.cpfLike(cpf), keysetRequest);
+	}
+	
+	/*
+	 * Totais, histograma e quebra por filhos de income, todos agregados pelo banco.
+	 * Com bounds o histograma usa esses limites; senão, faixas de largura bucketWidth.
+	 */
+	@Transactional(readOnly = true)
+	public IncomeReportDTO incomeStats(Double minIncome, Double maxIncome, double bucketWidth, double[] bounds) {
+		Specification<Client> filter = ClientSpecifications.incomeBetween(minIncome, maxIncome);
+		IncomeStatsDTO total = repository.incomeStats(filter);
+		List<IncomeBucketDTO> histogram;
+		if (bounds != null && bounds.length > 0) {
+			if (bounds.length >= statsMaxBuckets) {
+				throw new InvalidParameterException("Too many bounds: " + bounds.length);
+			}
+			for (int i = 0; i < bounds.length; i++) {
+				// NaN passaria pela comparação abaixo e iria parar no CASE do SQL
+				if (!Double.isFinite(bounds[i])) {
+					throw new InvalidParameterException("Invalid bound: " + bounds[i]);
+				}
+				if (i > 0 && bounds[i] <= bounds[i - 1]) {
+					throw new InvalidParameterException("Bounds must be strictly increasing");
+				}
+			}
+			histogram = repository.incomeHistogram(filter, bounds);
+		} else {
+			if (!(bucketWidth > 0) || !Double.isFinite(bucketWidth)) {
+				throw new InvalidParameterException("Invalid bucketWidth: " + bucketWidth);
+			}
+			if (total.getMin() != null
+					&& Math.floor(total.getMax() / bucketWidth) - Math.floor(total.getMin() / bucketWidth) >= statsMaxBuckets) {
+				throw new InvalidParameterException("bucketWidth too small for the income range: " + bucketWidth);
+			}
+			if (total.getMax() != null && !Double.isFinite((Math.floor(total.getMax() / bucketWidth) + 1) * bucketWidth)) {
+				throw new InvalidParameterException("bucketWidth too large: " + bucketWidth);
+			}
+			histogram = repository.incomeHistogram(filter, bucketWidth);
+		}
+		return new IncomeReportDTO(total, histogram, repository.incomeStatsByChildren(filter));
+	}
+	
+	/*
+	 * Qualquer combinação de faixas (income, birthDate, children), prefixo de cpf e trecho
+	 * do nome, montada em Specifications: um único SELECT com todas as condições (mais o
+	 * count da página), em vez de uma consulta por filtro e a interseção feita por quem chama.
+	 */
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByQuery(PageRequest pageRequest, ClientColumnFilter ranges, String cpfPrefix, String name) {
+		Specification<Client> filter = ranges.toSpecification()
+				.and(ClientSpecifications.cpfPrefix(cpfPrefix))
+				.and(ClientSpecifications.nameContains(name));
+		return repository.findAll(filter, pageRequest).map(x -> new ClientDTO(x));
+	}
+	
+	/*
+	 * count/sum/min/max/avg de income dos clientes nas faixas do filtro. Com o
+	 * ClientColumnStore ligado e carregado, a resposta vem da varredura das colunas em
+	 * memória; senão, do mesmo agregado no banco.
+	 */
+	public IncomeStatsDTO incomeStatsScan(ClientColumnFilter filter) {
+		ClientColumnStore store = columnStore.getIfAvailable();
+		if (store != null && store.isLoaded()) {
+			return store.incomeStats(filter);
+		}
+		return repository.incomeStats(filter.toSpecification());
+	}
+	
+	/*
+	 * Página de clientes que passam em todas as faixas do filtro, por nome. A varredura
+	 * paralela do ClientColumnStore dá o total e os ids até o fim da página; do banco
+	 * são lidas só as linhas da página. Sem o store, a mesma consulta vai para o banco.
+	 */
+	@Transactional(readOnly = true)
+	public Page<ClientDTO> findByColumnFilter(PageRequest pageRequest, ClientColumnFilter filter) {
+		ClientColumnStore store = columnStore.getIfAvailable();
+		if (store == null || !store.isLoaded()) {
+			return findByQuery(PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize(), Direction.ASC, "name"),
+					filter, null, null);
+		}
+		long end = pageRequest.getOffset() + pageRequest.getPageSize();
+		if (end > analyticsMaxRows) {
+			throw new InvalidParameterException("Page ends past client.analytics.max-rows: " + end);
+		}
+		ColumnQueryResult result = store.query(filter, (int) end);
+		long[] ids = result.getIdsByName();
+		int from = (int) Math.min(pageRequest.getOffset(), ids.length);
+		List<Long> pageIds = Arrays.stream(ids, from, ids.length).boxed().collect(Collectors.toList());
+		Map<Long, Client> rows = repository.findAllById(pageIds).stream()
+				.collect(Collectors.toMap(Client::getId, Function.identity()));
+		List<ClientDTO> content = pageIds.stream().map(rows::get).filter(Objects::nonNull)
+				.map(x -> new ClientDTO(x)).collect(Collectors.toList());
+		return new PageImpl<>(content, pageRequest, result.getCount());
+	}
+	
+	/*
+	 * Escreve todos os clientes como NDJSON (um ClientDTO por linha) lendo pelo cursor
+	 * do banco. Cada entidade é desanexada após a escrita, então o heap não cresce
+	 * com o tamanho da tabela.
+	 */
+	@Transactional(readOnly = true)
+	public void exportAll(OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(ClientDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setRootValueSeparator(null);
+		try (Stream<Client> stream = repository.streamAll()) {
+			int rows = 0;
+			Iterator<Client> it = stream.iterator();
+			while (it.hasNext()) {
+				Client entity = it.next();
+				writer.writeValue(generator, new ClientDTO(entity));
+				generator.writeRaw('\n');
+				entityManager.detach(entity);
+				if (++rows % exportFlushEvery == 0) {
+					generator.flush();
+				}
+			}
+		}
+		generator.close();
 	}
 	
 	@Transactional
 	public ClientDTO insert(ClientDTO dto) {		
-		Client entity = dto.toEntity();
-		entity = repository.save(entity);
-		return new ClientDTO(entity);
+		Client entity = toEntityForWrite(dto);
+		// flush antes do DTO: o @Version só é incrementado no flush
+		entity = repository.saveAndFlush(entity);
+		cache.evict(entity.getId());
+		return saved(new ClientDTO(entity));
+	}
+	
+	/*
+	 * Com client.write-behind.enabled, um cliente novo (sem id) só é aceito pelo
+	 * ClientWriteBehind e gravado depois, em lote; o DTO devolvido já traz o id. Vazio se o
+	 * modo estiver desligado ou o corpo trouxer id (que pode ser uma atualização): nesses
+	 * casos vale o insert normal.
+	 */
+	public Optional<ClientDTO> insertWriteBehind(ClientDTO dto) {
+		ClientWriteBehind buffer = writeBehind.getIfAvailable();
+		if (buffer == null || dto.getId() != null) {
+			return Optional.empty();
+		}
+		return Optional.of(buffer.enqueue(dto));
+	}
+	
+	/*
+	 * Grava a lista em lotes de client.batch.chunk-size, um lote por transação, deixando o
+	 * Hibernate agrupar os INSERTs (hibernate.jdbc.batch_size). Itens com id existente são
+	 * atualizados. Se um lote falhar ele é refeito linha a linha, de modo que só as linhas
+	 * com problema ficam de fora e o restante da carga é mantido.
+	 */
+	public BatchInsertResultDTO insertAll(List<ClientDTO> dtos) {
+		List<BatchItemResultDTO> results = new ArrayList<>(dtos.size());
+		for (int start = 0; start < dtos.size(); start += batchChunkSize) {
+			List<ClientDTO> chunk = dtos.subList(start, Math.min(start + batchChunkSize, dtos.size()));
+			int offset = start;
+			try {
+				results.addAll(transactionTemplate.execute(status -> insertChunk(chunk, offset)));
+			} catch (RuntimeException e) {
+				for (int i = 0; i < chunk.size(); i++) {
+					results.add(insertRow(chunk.get(i), offset + i));
+				}
+			}
+		}
+		return new BatchInsertResultDTO(results);
 	}
 	
 	@Transactional
 	public ClientDTO update(Long id, ClientDTO dto) {
 		try {
 			Client entity = repository.getOne(id);
+			checkVersion(id, dto.getVersion(), entity.getVersion());
 			updateData(entity, dto);
-			entity = repository.save(entity);
-			return new ClientDTO(entity);
+			// flush antes do DTO, para a resposta (e o ETag) trazer a versão gravada
+			entity = repository.saveAndFlush(entity);
+			cache.evict(id);
+			return saved(new ClientDTO(entity));
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
 		}
 	}
 	
+	/*
+	 * Atualização parcial: só os campos não nulos do corpo, com um único UPDATE (ver
+	 * ClientRepositoryCustom.patch) em vez de SELECT + dirty checking + UPDATE de todas as
+	 * colunas. Com version no corpo a escrita só acontece se a versão gravada for a mesma;
+	 * senão, 409. O UPDATE em conjunto não passa pelos listeners JPA, então cache e índice
+	 * de nomes são atualizados aqui.
+	 */
+	@Transactional
+	public ClientDTO patch(Long id, ClientDTO changes) {
+		if (repository.patch(id, changes) == 0) {
+			Long current = repository.findVersionById(id)
+					.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id));
+			checkVersion(id, changes.getVersion(), current);
+		}
+		cache.evict(id);
+		ClientDTO dto = repository.findProjectedById(id)
+				.orElseThrow(() -> new ResourceNotFoundException("Id not found " + id));
+		if (changes.getName() != null) {
+			nameIndex.putAfterCommit(id, dto.getName());
+		}
+		return saved(dto);
+	}
+	
 	public void delete(Long id) {
 		validador.eValido(id);
 		try {		
 			
 			repository.deleteById(id);
+			cache.evict(id);
+			events.publishEvent(ClientChangeEvent.deleted(id));
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
 		} catch (DataIntegrityViolationException e) {
@@ -90,6 +436,117 @@ public class ClientService {
 		} 
 	}
 
+	/*
+	 * Remove todos os clientes com income acima do limite sem carregar entidades: cada lote de
+	 * client.bulk-delete.chunk-size ids é apagado com um DELETE ... IN na sua própria transação,
+	 * o que mantém curto o tempo de bloqueio. Como o DELETE em conjunto não passa pelos
+	 * listeners JPA, o cache e o índice de nomes são atualizados (e o ClientChangeEvent
+	 * publicado) aqui, depois de cada commit.
+	 */
+	public BulkDeleteResultDTO deleteByIncomeGreaterThan(double income) {
+		long deleted = 0;
+		int chunks = 0;
+		while (true) {
+			List<Long> ids = transactionTemplate.execute(status -> {
+				List<Long> chunk = repository.findIdsByIncomeGreaterThan(income, PageRequest.of(0, bulkDeleteChunkSize));
+				if (!chunk.isEmpty()) {
+					repository.deleteAllByIdIn(chunk);
+				}
+				return chunk;
+			});
+			if (ids.isEmpty()) {
+				break;
+			}
+			for (Long id : ids) {
+				cache.evict(id);
+				nameIndex.remove(id);
+				events.publishEvent(ClientChangeEvent.deleted(id));
+			}
+			deleted += ids.size();
+			chunks++;
+		}
+		return new BulkDeleteResultDTO(deleted, chunks);
+	}
+
+	private CursorPageDTO<ClientDTO> findSeek(Specification<Client> filter, KeysetRequest keysetRequest) {
+		Slice<Client> slice = repository.findSeek(filter, keysetRequest);
+		List<Client> rows = slice.getContent();
+		String nextCursor = slice.hasNext() ? keysetRequest.next(rows.get(rows.size() - 1)) : null;
+		return new CursorPageDTO<>(slice.map(x -> new ClientDTO(x)).getContent(), keysetRequest.getSize(), nextCursor);
+	}
+
+	private List<BatchItemResultDTO> insertChunk(List<ClientDTO> chunk, int offset) {
+		List<Client> entities = new ArrayList<>(chunk.size());
+		for (ClientDTO dto : chunk) {
+			entities.add(repository.save(toEntityForWrite(dto)));
+		}
+		// um flush só para o lote; os DTOs saem depois dele, com a versão já incrementada
+		repository.flush();
+		List<BatchItemResultDTO> results = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			Client entity = entities.get(i);
+			cache.evict(entity.getId());
+			saved(new ClientDTO(entity));
+			results.add(new BatchItemResultDTO(offset + i, statusOf(chunk.get(i), entity), entity.getId(), null));
+		}
+		entityManager.clear();
+		return results;
+	}
+	
+	private BatchItemResultDTO insertRow(ClientDTO dto, int index) {
+		try {
+			return transactionTemplate.execute(status -> {
+				Client entity = repository.saveAndFlush(toEntityForWrite(dto));
+				cache.evict(entity.getId());
+				saved(new ClientDTO(entity));
+				return new BatchItemResultDTO(index, statusOf(dto, entity), entity.getId(), null);
+			});
+		} catch (RuntimeException e) {
+			Throwable cause = e;
+			while (cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			return new BatchItemResultDTO(index, BatchItemResultDTO.FAILED, null, cause.getMessage());
+		}
+	}
+	
+	/*
+	 * Publica a gravação (ClientChangeEvent); em transação, quem escuta recebe após o commit.
+	 */
+	private ClientDTO saved(ClientDTO dto) {
+		events.publishEvent(ClientChangeEvent.saved(dto));
+		return dto;
+	}
+	
+	private String statusOf(ClientDTO dto, Client entity) {
+		return entity.getId().equals(dto.getId()) ? BatchItemResultDTO.UPDATED : BatchItemResultDTO.CREATED;
+	}
+
+	private void checkVersion(Long id, Long expected, Long current) {
+		if (expected != null && !expected.equals(current)) {
+			throw new VersionConflictException("Version conflict for id " + id + ": expected " + expected
+					+ ", current " + current);
+		}
+	}
+
+	/*
+	 * Linhas com id e sem version atualizam sem controle otimista (como antes do @Version):
+	 * a versão atual é lida para que o merge aceite a escrita. Se o id não existe,
+	 * a linha é inserida com um id novo.
+	 */
+	private Client toEntityForWrite(ClientDTO dto) {
+		Client entity = dto.toEntity();
+		if (entity.getId() != null && entity.getVersion() == null) {
+			Optional<Long> current = repository.findVersionById(entity.getId());
+			if (current.isPresent()) {
+				entity.setVersion(current.get());
+			} else {
+				entity.setId(null);
+			}
+		}
+		return entity;
+	}
+
 	private void updateData(Client entity, ClientDTO dto) {
 		entity.setName(dto.getName());
 		entity.setCpf(dto.getCpf());
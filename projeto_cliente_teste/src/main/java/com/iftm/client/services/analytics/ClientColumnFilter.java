@@ -0,0 +1,86 @@
+package com.iftm.client.services.analytics;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientSpecifications;
+
+/*
+ * Faixas de income, birthDate e children (limites inclusivos; nulo = em aberto) em forma
+ * primitiva, para o laço de varredura do ClientColumnStore. Como no SQL, um cliente com a
+ * coluna nula só passa se aquela coluna não for filtrada. toSpecification() dá o mesmo
+ * filtro para o banco.
+ */
+public final class ClientColumnFilter {
+
+	static final double NULL_INCOME = Double.NaN;
+	static final long NULL_BIRTH_DATE = Long.MIN_VALUE;
+	static final int NULL_CHILDREN = Integer.MIN_VALUE;
+
+	private static final ClientColumnFilter ALL = of(null, null, null, null, null, null);
+
+	private final Double minIncomeValue;
+	private final Double maxIncomeValue;
+	private final Instant birthStart;
+	private final Instant birthEnd;
+	private final Integer minChildrenValue;
+	private final Integer maxChildrenValue;
+
+	final boolean byIncome;
+	final double minIncome;
+	final double maxIncome;
+	final boolean byBirthDate;
+	final long minBirthDate;
+	final long maxBirthDate;
+	final boolean byChildren;
+	final int minChildren;
+	final int maxChildren;
+
+	private ClientColumnFilter(Double minIncome, Double maxIncome, Instant birthStart, Instant birthEnd,
+			Integer minChildren, Integer maxChildren) {
+		this.minIncomeValue = minIncome;
+		this.maxIncomeValue = maxIncome;
+		this.birthStart = birthStart;
+		this.birthEnd = birthEnd;
+		this.minChildrenValue = minChildren;
+		this.maxChildrenValue = maxChildren;
+		this.byIncome = minIncome != null || maxIncome != null;
+		this.minIncome = minIncome != null ? minIncome : Double.NEGATIVE_INFINITY;
+		this.maxIncome = maxIncome != null ? maxIncome : Double.POSITIVE_INFINITY;
+		this.byBirthDate = birthStart != null || birthEnd != null;
+		this.minBirthDate = birthStart != null ? birthStart.toEpochMilli() : NULL_BIRTH_DATE + 1;
+		this.maxBirthDate = birthEnd != null ? birthEnd.toEpochMilli() : Long.MAX_VALUE;
+		this.byChildren = minChildren != null || maxChildren != null;
+		this.minChildren = minChildren != null ? minChildren : NULL_CHILDREN + 1;
+		this.maxChildren = maxChildren != null ? maxChildren : Integer.MAX_VALUE;
+	}
+
+	public static ClientColumnFilter of(Double minIncome, Double maxIncome, Instant birthStart, Instant birthEnd,
+			Integer minChildren, Integer maxChildren) {
+		return new ClientColumnFilter(minIncome, maxIncome, birthStart, birthEnd, minChildren, maxChildren);
+	}
+
+	public static ClientColumnFilter all() {
+		return ALL;
+	}
+
+	/*
+	 * NaN (income nulo) falha em qualquer comparação; as sentinelas de birthDate e children
+	 * ficam fora dos limites abertos. Usa & em vez de &&: com dados sem ordem os desvios
+	 * condicionais erram muito, e as comparações são baratas.
+	 */
+	boolean matches(double income, long birthDate, int children) {
+		boolean incomeOk = !byIncome | (income >= minIncome & income <= maxIncome);
+		boolean birthDateOk = !byBirthDate | (birthDate >= minBirthDate & birthDate <= maxBirthDate);
+		boolean childrenOk = !byChildren | (children >= minChildren & children <= maxChildren);
+		return incomeOk & birthDateOk & childrenOk;
+	}
+
+	public Specification<Client> toSpecification() {
+		return Specification.where(ClientSpecifications.incomeBetween(minIncomeValue, maxIncomeValue))
+				.and(ClientSpecifications.birthDateBetween(birthStart, birthEnd))
+				.and(ClientSpecifications.childrenBetween(minChildrenValue, maxChildrenValue));
+	}
+}
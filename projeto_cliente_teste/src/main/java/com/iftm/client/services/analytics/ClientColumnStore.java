@@ -0,0 +1,491 @@
+package com.iftm.client.services.analytics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.events.ClientChangeEvent;
+
+/*
+ * Cópia colunar dos clientes para varreduras analíticas (client.analytics.column-store.enabled).
+ * id, income, birthDate (epoch ms) e children ficam em colunas primitivas fora do heap:
+ * ByteBuffers diretos ou, com client.analytics.column-store.dir, arquivos mapeados em
+ * memória naquele diretório. name e cpf viram códigos int de um dicionário. Filtros por
+ * faixa e agregados percorrem as colunas sem criar objetos por linha.
+ *
+ * A carga completa vem do banco na subida; depois disso o store acompanha os
+ * ClientChangeEvent do ClientService (após o commit). As linhas ficam contíguas: a
+ * remoção move a última linha para o lugar da removida.
+ */
+@Component
+@ConditionalOnProperty(name = "client.analytics.column-store.enabled", havingValue = "true")
+public class ClientColumnStore implements InfoContributor {
+
+	private static final Logger log = LoggerFactory.getLogger(ClientColumnStore.class);
+
+	private final ClientRepository repository;
+	private final TransactionTemplate transactionTemplate;
+	private final Path dir;
+	private final int initialCapacity;
+	private final ForkJoinPool pool;
+	private final int splitRows;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Lock readLock = lock.readLock();
+	private final Lock writeLock = lock.writeLock();
+
+	private final Column idColumn = new Column("id", Long.BYTES);
+	private final Column incomeColumn = new Column("income", Double.BYTES);
+	private final Column birthDateColumn = new Column("birth_date", Long.BYTES);
+	private final Column childrenColumn = new Column("children", Integer.BYTES);
+	private final Column nameColumn = new Column("name", Integer.BYTES);
+	private final Column cpfColumn = new Column("cpf", Integer.BYTES);
+	private final Column[] columns = { idColumn, incomeColumn, birthDateColumn, childrenColumn, nameColumn, cpfColumn };
+
+	private final StringDictionary names = new StringDictionary();
+	private final StringDictionary cpfs = new StringDictionary();
+	private final IdIndex index;
+
+	private LongBuffer ids;
+	private DoubleBuffer incomes;
+	private LongBuffer birthDates;
+	private IntBuffer children;
+	private IntBuffer nameCodes;
+	private IntBuffer cpfCodes;
+	private int capacity;
+	private int size;
+	private int generation;
+	private volatile boolean loaded;
+
+	private final Object rankLock = new Object();
+	private int[] nameRanks = new int[0];
+	private int rankedGeneration = -1;
+
+	public ClientColumnStore(ClientRepository repository, TransactionTemplate transactionTemplate,
+			@Value("${client.analytics.column-store.dir:}") String dir,
+			@Value("${client.analytics.column-store.initial-capacity:1024}") int initialCapacity,
+			@Value("${client.analytics.parallelism:0}") int parallelism,
+			@Value("${client.analytics.split-rows:65536}") int splitRows) {
+		this.repository = repository;
+		this.transactionTemplate = transactionTemplate;
+		this.dir = dir.isEmpty() ? null : Paths.get(dir);
+		this.initialCapacity = Math.max(16, initialCapacity);
+		this.index = new IdIndex(this.initialCapacity);
+		int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+		this.pool = threads > 1 ? new ForkJoinPool(threads, ClientColumnStore::scanThread, null, false) : null;
+		this.splitRows = Math.max(1, splitRows);
+		allocate(this.initialCapacity, true);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	/*
+	 * Recarga completa a partir do banco. Eventos que chegam durante a carga esperam o
+	 * lock de escrita e são aplicados em seguida (aplicar um evento duas vezes não muda nada).
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void reload() {
+		long started = System.nanoTime();
+		writeLock.lock();
+		try {
+			size = 0;
+			generation++;
+			index.clear();
+			names.clear();
+			cpfs.clear();
+			allocate(initialCapacity, true);
+			transactionTemplate.execute(status -> {
+				try (Stream<Client> stream = repository.streamAll()) {
+					Iterator<Client> it = stream.iterator();
+					while (it.hasNext()) {
+						Client entity = it.next();
+						upsert(entity.getId(), entity.getName(), entity.getCpf(), entity.getIncome(),
+								entity.getBirthDate() != null ? entity.getBirthDate().toEpochMilli() : ClientColumnFilter.NULL_BIRTH_DATE,
+								entity.getChildren());
+						entityManager.detach(entity);
+					}
+				}
+				return null;
+			});
+			loaded = true;
+		} finally {
+			writeLock.unlock();
+		}
+		log.info("Column store loaded {} clients ({} KB {}) in {} ms", size, bytes() / 1024,
+				dir != null ? "mapped in " + dir : "off-heap", (System.nanoTime() - started) / 1_000_000);
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void apply(ClientChangeEvent event) {
+		writeLock.lock();
+		try {
+			if (event.getType() == ClientChangeEvent.Type.DELETED) {
+				delete(event.getId());
+			} else {
+				ClientDTO dto = event.getClient();
+				upsert(dto.getId(), dto.getName(), dto.getCpf(), dto.getIncome(),
+						dto.getBirthDate() != null ? dto.getBirthDate().toEpochMilli() : ClientColumnFilter.NULL_BIRTH_DATE,
+						dto.getChildren());
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	public int size() {
+		readLock.lock();
+		try {
+			return size;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/*
+	 * Mesmos agregados de ClientRepository.incomeStats: count conta as linhas que passam no
+	 * filtro; sum/min/max/avg ignoram income nulo e são nulos se não sobrar nenhum.
+	 */
+	public IncomeStatsDTO incomeStats(ClientColumnFilter filter) {
+		return query(filter, 0).getIncomeStats();
+	}
+
+	public long count(ClientColumnFilter filter) {
+		return query(filter, 0).getCount();
+	}
+
+	/*
+	 * Uma varredura com o filtro: contagem e agregados de income de todas as linhas que
+	 * passam, mais os ids das `limit` primeiras por nome (ASC, nulos primeiro). Acima de
+	 * client.analytics.split-rows linhas, a faixa de linhas é dividida ao meio, recursivamente,
+	 * num ForkJoinPool de client.analytics.parallelism threads; cada pedaço guarda só o seu
+	 * TopK, e os parciais são unidos na volta.
+	 */
+	public ColumnQueryResult query(ClientColumnFilter filter, int limit) {
+		readLock.lock();
+		try {
+			ScanTask task = new ScanTask(filter, Math.max(0, limit), limit > 0 ? nameRanks() : null, 0, size);
+			Partial result = pool != null && size > splitRows ? pool.invoke(task) : task.scan();
+			long[] found = new long[result.top.length];
+			for (int i = 0; i < found.length; i++) {
+				found[i] = ids.get((int) result.top[i]);
+			}
+			return new ColumnQueryResult(result.count, result.incomeStats(), found);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/*
+	 * Quantos clientes têm exatamente este cpf: a string vira código uma vez e a varredura
+	 * compara ints.
+	 */
+	public long countByCpf(String cpf) {
+		long count = 0;
+		readLock.lock();
+		try {
+			int code = cpfs.code(cpf);
+			if (code == StringDictionary.NULL_CODE) {
+				return 0;
+			}
+			IntBuffer cpfCodes = this.cpfCodes;
+			for (int row = 0, rows = size; row < rows; row++) {
+				if (cpfCodes.get(row) == code) {
+					count++;
+				}
+			}
+		} finally {
+			readLock.unlock();
+		}
+		return count;
+	}
+
+	public String nameOf(long id) {
+		readLock.lock();
+		try {
+			int row = index.get(id);
+			return row < 0 ? null : names.decode(nameCodes.get(row));
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public void contribute(Info.Builder builder) {
+		Map<String, Object> details = new LinkedHashMap<>();
+		readLock.lock();
+		try {
+			details.put("loaded", loaded);
+			details.put("rows", size);
+			details.put("capacity", capacity);
+			details.put("bytes", bytes());
+			details.put("storage", dir != null ? "mapped:" + dir.toAbsolutePath() : "direct");
+			details.put("parallelism", pool != null ? pool.getParallelism() : 1);
+			details.put("distinctNames", names.size());
+			details.put("distinctCpfs", cpfs.size());
+		} finally {
+			readLock.unlock();
+		}
+		builder.withDetail("columnStore", details);
+	}
+
+	private void upsert(Long id, String name, String cpf, Double income, long birthDate, Integer childCount) {
+		int row = index.get(id);
+		if (row < 0) {
+			if (size == capacity) {
+				allocate(capacity * 2, false);
+			}
+			row = size++;
+			index.put(id, row);
+			ids.put(row, id);
+		}
+		incomes.put(row, income != null ? income : ClientColumnFilter.NULL_INCOME);
+		birthDates.put(row, birthDate);
+		children.put(row, childCount != null ? childCount : ClientColumnFilter.NULL_CHILDREN);
+		nameCodes.put(row, names.encode(name));
+		cpfCodes.put(row, cpfs.encode(cpf));
+	}
+
+	private void delete(Long id) {
+		int row = index.get(id);
+		if (row < 0) {
+			return;
+		}
+		int last = --size;
+		if (row != last) {
+			long moved = ids.get(last);
+			ids.put(row, moved);
+			incomes.put(row, incomes.get(last));
+			birthDates.put(row, birthDates.get(last));
+			children.put(row, children.get(last));
+			nameCodes.put(row, nameCodes.get(last));
+			cpfCodes.put(row, cpfCodes.get(last));
+			index.put(moved, row);
+		}
+		index.remove(id);
+	}
+
+	/*
+	 * Posição de cada código de nome na ordem dos nomes; refeita quando o dicionário muda
+	 * (ele só cresce, então basta o tamanho, além da geração de recarga). Chamado com o
+	 * lock de leitura, que exclui escritas mas não outras leituras.
+	 */
+	private int[] nameRanks() {
+		synchronized (rankLock) {
+			if (rankedGeneration != generation || nameRanks.length != names.size()) {
+				nameRanks = names.ranks();
+				rankedGeneration = generation;
+			}
+			return nameRanks;
+		}
+	}
+
+	private static ForkJoinWorkerThread scanThread(ForkJoinPool pool) {
+		ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("column-scan-" + thread.getPoolIndex());
+		return thread;
+	}
+
+	/*
+	 * Troca as colunas por outras com `newCapacity` linhas, preservando as `size` primeiras.
+	 * fresh descarta o conteúdo anterior (recarga).
+	 */
+	private void allocate(int newCapacity, boolean fresh) {
+		for (Column column : columns) {
+			column.resize(newCapacity, fresh ? 0 : size, fresh);
+		}
+		ids = idColumn.bytes.asLongBuffer();
+		incomes = incomeColumn.bytes.asDoubleBuffer();
+		birthDates = birthDateColumn.bytes.asLongBuffer();
+		children = childrenColumn.bytes.asIntBuffer();
+		nameCodes = nameColumn.bytes.asIntBuffer();
+		cpfCodes = cpfColumn.bytes.asIntBuffer();
+		capacity = newCapacity;
+	}
+
+	private long bytes() {
+		return (long) capacity * Arrays.stream(columns).mapToInt(column -> column.width).sum();
+	}
+
+	/*
+	 * Varre as linhas [from, to), dividindo ao meio enquanto a faixa passar de splitRows.
+	 * A chave do TopK é (posição do nome + 1) << 32 | linha: ordena por nome, nulo primeiro,
+	 * e empates pela linha.
+	 */
+	private class ScanTask extends RecursiveTask<Partial> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ClientColumnFilter filter;
+		private final int limit;
+		private final int[] ranks;
+		private final int from;
+		private final int to;
+
+		ScanTask(ClientColumnFilter filter, int limit, int[] ranks, int from, int to) {
+			this.filter = filter;
+			this.limit = limit;
+			this.ranks = ranks;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Partial compute() {
+			if (to - from <= splitRows) {
+				return scan();
+			}
+			int middle = (from + to) >>> 1;
+			ScanTask right = new ScanTask(filter, limit, ranks, middle, to);
+			right.fork();
+			Partial left = new ScanTask(filter, limit, ranks, from, middle).compute();
+			return left.merge(right.join(), limit);
+		}
+
+		Partial scan() {
+			DoubleBuffer incomes = ClientColumnStore.this.incomes;
+			LongBuffer birthDates = ClientColumnStore.this.birthDates;
+			IntBuffer children = ClientColumnStore.this.children;
+			IntBuffer nameCodes = ClientColumnStore.this.nameCodes;
+			TopK top = limit > 0 ? new TopK(limit) : null;
+			Partial partial = new Partial();
+			for (int row = from; row < to; row++) {
+				double income = incomes.get(row);
+				if (filter.matches(income, birthDates.get(row), children.get(row))) {
+					partial.count++;
+					if (income == income) {
+						partial.nonNull++;
+						partial.sum += income;
+						partial.min = Math.min(partial.min, income);
+						partial.max = Math.max(partial.max, income);
+					}
+					if (top != null) {
+						int code = nameCodes.get(row);
+						long rank = code == StringDictionary.NULL_CODE ? 0 : ranks[code] + 1;
+						top.offer(rank << 32 | row);
+					}
+				}
+			}
+			if (top != null) {
+				partial.top = top.sorted();
+			}
+			return partial;
+		}
+	}
+
+	private static class Partial {
+
+		long count;
+		long nonNull;
+		double sum;
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		long[] top = new long[0];
+
+		Partial merge(Partial other, int limit) {
+			count += other.count;
+			nonNull += other.nonNull;
+			sum += other.sum;
+			min = Math.min(min, other.min);
+			max = Math.max(max, other.max);
+			top = TopK.merge(top, other.top, limit);
+			return this;
+		}
+
+		IncomeStatsDTO incomeStats() {
+			return nonNull == 0 ? new IncomeStatsDTO(count, null, null, null, null)
+					: new IncomeStatsDTO(count, sum, min, max, sum / nonNull);
+		}
+	}
+
+	private class Column {
+
+		final String name;
+		final int width;
+		ByteBuffer bytes;
+
+		Column(String name, int width) {
+			this.name = name;
+			this.width = width;
+		}
+
+		void resize(int capacity, int rows, boolean fresh) {
+			long length = (long) capacity * width;
+			if (dir == null) {
+				ByteBuffer resized = ByteBuffer.allocateDirect((int) length).order(ByteOrder.nativeOrder());
+				if (rows > 0) {
+					ByteBuffer used = bytes.duplicate();
+					used.clear().limit(rows * width);
+					resized.put(used).clear();
+				}
+				bytes = resized;
+				return;
+			}
+			// o arquivo mapeado cresce no lugar: as linhas já gravadas continuam nele
+			try {
+				Files.createDirectories(dir);
+				Path file = dir.resolve("client-" + name + ".col");
+				StandardOpenOption[] options = fresh
+						? new StandardOpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.READ,
+								StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING }
+						: new StandardOpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.READ,
+								StandardOpenOption.WRITE };
+				try (FileChannel channel = FileChannel.open(file, options)) {
+					bytes = channel.map(FileChannel.MapMode.READ_WRITE, 0, length).order(ByteOrder.nativeOrder());
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot map column file for " + name, e);
+			}
+		}
+	}
+}
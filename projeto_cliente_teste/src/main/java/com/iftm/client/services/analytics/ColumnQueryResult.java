@@ -0,0 +1,32 @@
+package com.iftm.client.services.analytics;
+
+import com.iftm.client.dto.IncomeStatsDTO;
+
+/*
+ * Resultado de ClientColumnStore.query: total e agregados de income de todas as linhas que
+ * passam no filtro e os ids das primeiras por nome (no máximo o limite pedido).
+ */
+public final class ColumnQueryResult {
+
+	private final long count;
+	private final IncomeStatsDTO incomeStats;
+	private final long[] idsByName;
+
+	ColumnQueryResult(long count, IncomeStatsDTO incomeStats, long[] idsByName) {
+		this.count = count;
+		this.incomeStats = incomeStats;
+		this.idsByName = idsByName;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public IncomeStatsDTO getIncomeStats() {
+		return incomeStats;
+	}
+
+	public long[] getIdsByName() {
+		return idsByName;
+	}
+}
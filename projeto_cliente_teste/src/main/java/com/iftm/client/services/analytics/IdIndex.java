@@ -0,0 +1,123 @@
+package com.iftm.client.services.analytics;
+
+import java.util.Arrays;
+
+/*
+ * Mapa id -> linha do ClientColumnStore em arrays primitivos (endereçamento aberto com
+ * sondagem linear), sem um Long e um nó por cliente como num HashMap. A remoção desloca
+ * as entradas seguintes para trás, então não há lápides. Não é thread-safe: o
+ * ClientColumnStore só o usa com o lock de escrita (ou de leitura, em get).
+ */
+final class IdIndex {
+
+	private static final long EMPTY = Long.MIN_VALUE;
+
+	private long[] keys;
+	private int[] rows;
+	private int mask;
+	private int size;
+
+	IdIndex(int expected) {
+		allocate(tableSize(expected));
+	}
+
+	int size() {
+		return size;
+	}
+
+	/*
+	 * Linha do id, ou -1.
+	 */
+	int get(long id) {
+		for (int slot = slot(id);; slot = (slot + 1) & mask) {
+			long key = keys[slot];
+			if (key == id) {
+				return rows[slot];
+			}
+			if (key == EMPTY) {
+				return -1;
+			}
+		}
+	}
+
+	void put(long id, int row) {
+		int slot = slot(id);
+		while (keys[slot] != EMPTY && keys[slot] != id) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == EMPTY) {
+			keys[slot] = id;
+			if (++size > keys.length / 2) {
+				rows[slot] = row;
+				resize(keys.length * 2);
+				return;
+			}
+		}
+		rows[slot] = row;
+	}
+
+	void remove(long id) {
+		int slot = slot(id);
+		while (keys[slot] != id) {
+			if (keys[slot] == EMPTY) {
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		size--;
+		int hole = slot;
+		for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+			int home = slot(keys[next]);
+			// a entrada em next só pode ir para o buraco se a sua posição de origem não
+			// estiver (circularmente) entre o buraco e ela
+			boolean between = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+			if (!between) {
+				keys[hole] = keys[next];
+				rows[hole] = rows[next];
+				hole = next;
+			}
+		}
+		keys[hole] = EMPTY;
+	}
+
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldRows = rows;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slot(oldKeys[i]);
+				while (keys[slot] != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				rows[slot] = oldRows[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		rows = new int[capacity];
+		mask = capacity - 1;
+		Arrays.fill(keys, EMPTY);
+	}
+
+	private int slot(long id) {
+		long hash = id * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	private static int tableSize(int expected) {
+		int capacity = 16;
+		while (capacity < expected * 2) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,72 @@
+package com.iftm.client.services.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Dicionário de strings do ClientColumnStore: cada valor distinto vira um código int,
+ * e a coluna guarda só os códigos. Códigos não são reaproveitados enquanto o dicionário
+ * existe; uma recarga completa do store começa outro. Nulo é sempre -1.
+ */
+final class StringDictionary {
+
+	static final int NULL_CODE = -1;
+
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final List<String> values = new ArrayList<>();
+
+	int encode(String value) {
+		if (value == null) {
+			return NULL_CODE;
+		}
+		Integer code = codes.get(value);
+		if (code == null) {
+			code = values.size();
+			codes.put(value, code);
+			values.add(value);
+		}
+		return code;
+	}
+
+	/*
+	 * Código de um valor já visto, sem incluí-lo; -1 para nulo ou valor desconhecido.
+	 */
+	int code(String value) {
+		Integer code = value == null ? null : codes.get(value);
+		return code == null ? NULL_CODE : code;
+	}
+
+	String decode(int code) {
+		return code == NULL_CODE ? null : values.get(code);
+	}
+
+	/*
+	 * Posição de cada código na ordem dos valores por String.compareTo, a mesma do
+	 * ORDER BY do H2 sem collation.
+	 */
+	int[] ranks() {
+		Integer[] codes = new Integer[values.size()];
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = i;
+		}
+		Arrays.sort(codes, Comparator.comparing(values::get));
+		int[] ranks = new int[codes.length];
+		for (int i = 0; i < codes.length; i++) {
+			ranks[codes[i]] = i;
+		}
+		return ranks;
+	}
+
+	int size() {
+		return values.size();
+	}
+
+	void clear() {
+		codes.clear();
+		values.clear();
+	}
+}
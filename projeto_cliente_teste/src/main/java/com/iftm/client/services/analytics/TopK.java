@@ -0,0 +1,73 @@
+package com.iftm.client.services.analytics;
+
+import java.util.Arrays;
+
+/*
+ * As k menores chaves long vistas, num heap de máximo em array primitivo: quando cheio,
+ * uma chave maior que a raiz é descartada com uma comparação. Usado pelo ClientColumnStore
+ * para ordenar por nome sem ordenar todas as linhas que passam no filtro; cada pedaço da
+ * varredura tem o seu, e os resultados são unidos com merge.
+ */
+final class TopK {
+
+	private final long[] heap;
+	private int size;
+
+	TopK(int k) {
+		this.heap = new long[k];
+	}
+
+	void offer(long key) {
+		if (size < heap.length) {
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (heap[parent] >= key) {
+					break;
+				}
+				heap[i] = heap[parent];
+				i = parent;
+			}
+			heap[i] = key;
+		} else if (heap.length > 0 && key < heap[0]) {
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && heap[child + 1] > heap[child]) {
+					child++;
+				}
+				if (heap[child] <= key) {
+					break;
+				}
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = key;
+		}
+	}
+
+	/*
+	 * As chaves guardadas, em ordem crescente.
+	 */
+	long[] sorted() {
+		long[] keys = Arrays.copyOf(heap, size);
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	/*
+	 * As k menores chaves de dois arrays já em ordem crescente.
+	 */
+	static long[] merge(long[] a, long[] b, int k) {
+		long[] merged = new long[Math.min(k, a.length + b.length)];
+		int i = 0;
+		int j = 0;
+		for (int n = 0; n < merged.length; n++) {
+			merged[n] = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+		}
+		return merged;
+	}
+}
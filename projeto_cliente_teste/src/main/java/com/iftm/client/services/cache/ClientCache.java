@@ -0,0 +1,84 @@
+package com.iftm.client.services.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.iftm.client.dto.CacheStatsDTO;
+import com.iftm.client.dto.ClientDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/*
+ * Cache em memória de ClientDTO por id, limitado por tamanho e por tempo de vida.
+ * Guarda uma cópia própria de cada DTO e devolve sempre outra cópia,
+ * então quem chama não consegue alterar o que está em cache.
+ */
+@Component
+public class ClientCache {
+
+	private final Cache<Long, ClientDTO> cache;
+
+	public ClientCache(@Value("${client.cache.maximum-size:10000}") long maximumSize,
+			@Value("${client.cache.ttl-seconds:300}") long ttlSeconds, MeterRegistry registry) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, cache, "clients.byId");
+	}
+
+	/*
+	 * Leituras concorrentes do mesmo id que não estão em cache esperam uma única carga.
+	 */
+	public ClientDTO get(Long id, Function<Long, ClientDTO> loader) {
+		ClientDTO dto = cache.get(id, key -> new ClientDTO(loader.apply(key)));
+		return new ClientDTO(dto);
+	}
+
+	/*
+	 * Versão do DTO em cache, sem copiá-lo nem contar acerto/falta; null se não estiver no cache.
+	 */
+	public Long version(Long id) {
+		ClientDTO dto = cache.asMap().get(id);
+		return dto == null ? null : dto.getVersion();
+	}
+
+	/*
+	 * Remove na hora e, se houver transação em andamento, de novo após o commit:
+	 * evita que uma leitura concorrente recoloque o valor antigo antes do commit.
+	 */
+	public void evict(Long id) {
+		if (id == null) {
+			return;
+		}
+		cache.invalidate(id);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					cache.invalidate(id);
+				}
+			});
+		}
+	}
+
+	public void evictAll() {
+		cache.invalidateAll();
+	}
+
+	public CacheStatsDTO stats() {
+		CacheStats stats = cache.stats();
+		return new CacheStatsDTO(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+				cache.estimatedSize(), stats.hitRate());
+	}
+}
@@ -0,0 +1,202 @@
+package com.iftm.client.services.changelog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Formato de um registro do log de alterações (ClientChangeLog), em big-endian, e uma
+ * visão sobre ele que lê os campos direto do buffer (mapeado) sem copiar o registro:
+ *
+ *   int    length   bytes do corpo; 0 = ainda nada escrito, -1 = segmento encerrado
+ *   int    crc      CRC32 do corpo
+ *   byte   type     1 = SAVED, 2 = DELETED
+ *   long   id
+ *   long   at       epoch ms da gravação no log
+ *   -- só em SAVED --
+ *   long   version   (Long.MIN_VALUE = nulo)
+ *   double income    (NaN = nulo)
+ *   long   birthDate epoch ms (Long.MIN_VALUE = nulo)
+ *   int    children  (Integer.MIN_VALUE = nulo)
+ *   short  n + n bytes UTF-8 de name (-1 = nulo)
+ *   short  n + n bytes UTF-8 de cpf (-1 = nulo)
+ *
+ * length é escrito por último: quem lê um length positivo com o CRC correto tem o
+ * registro inteiro. O offset de um registro é a posição dele no log inteiro (base do
+ * segmento, que está no nome do arquivo, mais a posição no segmento).
+ */
+public final class ChangeLogRecord {
+
+	public static final int HEADER_BYTES = 8;
+	public static final int SEALED = -1;
+	public static final byte SAVED = 1;
+	public static final byte DELETED = 2;
+
+	private static final int TYPE = HEADER_BYTES;
+	private static final int ID = TYPE + 1;
+	private static final int AT = ID + Long.BYTES;
+	private static final int VERSION = AT + Long.BYTES;
+	private static final int INCOME = VERSION + Long.BYTES;
+	private static final int BIRTH_DATE = INCOME + Double.BYTES;
+	private static final int CHILDREN = BIRTH_DATE + Long.BYTES;
+	private static final int NAME = CHILDREN + Integer.BYTES;
+	private static final int DELETED_BODY = VERSION - HEADER_BYTES;
+
+	private ByteBuffer buffer;
+	private int position;
+	private long offset;
+
+	/*
+	 * Aponta esta visão para o registro em position; o mesmo objeto pode ser reaproveitado.
+	 */
+	public ChangeLogRecord wrap(ByteBuffer buffer, int position, long offset) {
+		this.buffer = buffer;
+		this.position = position;
+		this.offset = offset;
+		return this;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+	/*
+	 * Offset do registro seguinte.
+	 */
+	public long getNextOffset() {
+		return offset + size();
+	}
+
+	public int size() {
+		return HEADER_BYTES + buffer.getInt(position);
+	}
+
+	public byte getType() {
+		return buffer.get(position + TYPE);
+	}
+
+	public long getId() {
+		return buffer.getLong(position + ID);
+	}
+
+	public Instant getAt() {
+		return Instant.ofEpochMilli(buffer.getLong(position + AT));
+	}
+
+	/*
+	 * O cliente gravado, como estava após a escrita; nulo em DELETED.
+	 */
+	public ClientDTO getClient() {
+		if (getType() != SAVED) {
+			return null;
+		}
+		long version = buffer.getLong(position + VERSION);
+		double income = buffer.getDouble(position + INCOME);
+		long birthDate = buffer.getLong(position + BIRTH_DATE);
+		int children = buffer.getInt(position + CHILDREN);
+		int nameAt = position + NAME;
+		String name = string(buffer, nameAt);
+		String cpf = string(buffer, nameAt + Short.BYTES + Math.max(0, buffer.getShort(nameAt)));
+		return new ClientDTO(getId(), name, cpf, Double.isNaN(income) ? null : income,
+				birthDate == Long.MIN_VALUE ? null : Instant.ofEpochMilli(birthDate),
+				children == Integer.MIN_VALUE ? null : children, version == Long.MIN_VALUE ? null : version);
+	}
+
+	/*
+	 * true se em position há um registro completo dentro de limit: length positivo que cabe
+	 * e CRC conferindo. Falso também para um offset que não é início de registro.
+	 */
+	public static boolean isComplete(ByteBuffer buffer, int position, int limit) {
+		if (position + HEADER_BYTES > limit) {
+			return false;
+		}
+		int length = buffer.getInt(position);
+		if (length <= 0 || length > limit - position - HEADER_BYTES) {
+			return false;
+		}
+		return crc(buffer, position + HEADER_BYTES, length) == buffer.getInt(position + Integer.BYTES);
+	}
+
+	/*
+	 * true se em position o segmento foi encerrado (o log continua no segmento seguinte).
+	 */
+	public static boolean isSealed(ByteBuffer buffer, int position, int limit) {
+		return position + Integer.BYTES > limit || buffer.getInt(position) == SEALED;
+	}
+
+	static int sizeOf(byte[] name, byte[] cpf, boolean saved) {
+		if (!saved) {
+			return HEADER_BYTES + DELETED_BODY;
+		}
+		return NAME + Short.BYTES + length(name) + Short.BYTES + length(cpf);
+	}
+
+	/*
+	 * Escreve o registro em position (que precisa ter sizeOf bytes livres) e devolve o tamanho.
+	 */
+	static int write(ByteBuffer buffer, int position, long id, long at, ClientDTO client, byte[] name, byte[] cpf) {
+		int size = sizeOf(name, cpf, client != null);
+		buffer.put(position + TYPE, client != null ? SAVED : DELETED);
+		buffer.putLong(position + ID, id);
+		buffer.putLong(position + AT, at);
+		if (client != null) {
+			buffer.putLong(position + VERSION, client.getVersion() == null ? Long.MIN_VALUE : client.getVersion());
+			buffer.putDouble(position + INCOME, client.getIncome() == null ? Double.NaN : client.getIncome());
+			buffer.putLong(position + BIRTH_DATE,
+					client.getBirthDate() == null ? Long.MIN_VALUE : client.getBirthDate().toEpochMilli());
+			buffer.putInt(position + CHILDREN, client.getChildren() == null ? Integer.MIN_VALUE : client.getChildren());
+			int cpfAt = putString(buffer, position + NAME, name);
+			putString(buffer, cpfAt, cpf);
+		}
+		int length = size - HEADER_BYTES;
+		buffer.putInt(position + Integer.BYTES, crc(buffer, position + HEADER_BYTES, length));
+		buffer.putInt(position, length);
+		return size;
+	}
+
+	static byte[] bytes(String value) {
+		if (value == null) {
+			return null;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Value too long for the change log: " + bytes.length + " bytes");
+		}
+		return bytes;
+	}
+
+	private static int length(byte[] bytes) {
+		return bytes == null ? 0 : bytes.length;
+	}
+
+	private static int putString(ByteBuffer buffer, int position, byte[] bytes) {
+		buffer.putShort(position, bytes == null ? -1 : (short) bytes.length);
+		for (int i = 0; i < length(bytes); i++) {
+			buffer.put(position + Short.BYTES + i, bytes[i]);
+		}
+		return position + Short.BYTES + length(bytes);
+	}
+
+	private static String string(ByteBuffer buffer, int position) {
+		int length = buffer.getShort(position);
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(position + Short.BYTES + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int crc(ByteBuffer buffer, int position, int length) {
+		ByteBuffer body = buffer.duplicate();
+		body.limit(position + length).position(position);
+		CRC32 crc = new CRC32();
+		crc.update(body);
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,109 @@
+package com.iftm.client.services.changelog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/*
+ * Leitor dos arquivos do ClientChangeLog para outro processo (ou ferramenta) na mesma
+ * máquina, sem passar pela API nem pelo Spring: mapeia os segmentos só para leitura e
+ * entrega cada registro como um ChangeLogRecord sobre a página mapeada, sem copiar bytes.
+ * Guarda o mapeamento do segmento em leitura entre chamadas. Não é thread-safe.
+ */
+public final class ChangeLogTailer implements Closeable {
+
+	private final Path dir;
+	private final ChangeLogRecord record = new ChangeLogRecord();
+
+	private long base = -1;
+	private MappedByteBuffer buffer;
+
+	public ChangeLogTailer(Path dir) {
+		this.dir = dir;
+	}
+
+	/*
+	 * Entrega a consumer até max registros a partir de offset e devolve o offset seguinte
+	 * (o mesmo, se ainda não há nada novo). O ChangeLogRecord é reaproveitado: só vale
+	 * durante a chamada de consumer.
+	 */
+	public long poll(long offset, int max, Consumer<ChangeLogRecord> consumer) throws IOException {
+		int delivered = 0;
+		while (delivered < max) {
+			if (!map(offset)) {
+				return offset;
+			}
+			int at = (int) (offset - base);
+			if (ChangeLogRecord.isSealed(buffer, at, buffer.capacity())) {
+				// continua no segmento que começa neste offset, se já existir
+				if (!map(offset, true)) {
+					return offset;
+				}
+				continue;
+			}
+			if (!ChangeLogRecord.isComplete(buffer, at, buffer.capacity())) {
+				return offset;
+			}
+			consumer.accept(record.wrap(buffer, at, offset));
+			offset = record.getNextOffset();
+			delivered++;
+		}
+		return offset;
+	}
+
+	@Override
+	public void close() {
+		buffer = null;
+		base = -1;
+	}
+
+	private boolean map(long offset) throws IOException {
+		return map(offset, false);
+	}
+
+	/*
+	 * Mapeia o segmento com o maior início <= offset (com next, só um que comece exatamente
+	 * em offset); false se não houver.
+	 */
+	private boolean map(long offset, boolean next) throws IOException {
+		if (buffer != null && !next && offset >= base && offset - base < buffer.capacity()) {
+			return true;
+		}
+		long found = -1;
+		for (Path file : segments()) {
+			long start = ClientChangeLog.base(file);
+			if (start <= offset && start > found && (!next || start == offset)) {
+				found = start;
+			}
+		}
+		if (found < 0 || (next && found == base)) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(dir.resolve(ClientChangeLog.name(found)), StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			base = found;
+			return true;
+		} catch (NoSuchFileException e) {
+			// apagado pela retenção entre a listagem e a abertura
+			return false;
+		}
+	}
+
+	private List<Path> segments() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir,
+				ClientChangeLog.PREFIX + "*" + ClientChangeLog.SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		return files;
+	}
+}
@@ -0,0 +1,275 @@
+package com.iftm.client.services.changelog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.iftm.client.dto.ChangeLogPageDTO;
+import com.iftm.client.dto.ChangeRecordDTO;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.services.events.ClientChangeEvent;
+
+/*
+ * Log de alterações dos clientes (client.changelog.enabled): cada ClientChangeEvent do
+ * ClientService (insert, update, patch, delete, carga e remoção em lote, write-behind) vira,
+ * após o commit, um ChangeLogRecord acrescentado ao segmento atual em client.changelog.dir.
+ * Os segmentos são arquivos de client.changelog.segment-bytes mapeados em memória,
+ * changes-<offset inicial>.log; quando o registro não cabe, o segmento é encerrado e outro
+ * começa no mesmo offset. Ficam os últimos client.changelog.retain-segments.
+ *
+ * Como o registro é escrito pela página mapeada, sobrevive a uma queda do processo (não do
+ * sistema operacional). Na subida o último segmento é percorrido até o último registro
+ * completo. Outro processo pode acompanhar os arquivos com o ChangeLogTailer.
+ */
+@Component
+@ConditionalOnProperty(name = "client.changelog.enabled", havingValue = "true")
+public class ClientChangeLog {
+
+	private static final Logger log = LoggerFactory.getLogger(ClientChangeLog.class);
+
+	static final String PREFIX = "changes-";
+	static final String SUFFIX = ".log";
+
+	private final Path dir;
+	private final int segmentBytes;
+	private final int retainSegments;
+
+	// cópia imutável, trocada a cada novo segmento
+	private volatile List<Segment> segments;
+	private Segment current;
+	private int position;
+	private volatile long end;
+
+	private final Set<CompletableFuture<Void>> waiters = ConcurrentHashMap.newKeySet();
+
+	public ClientChangeLog(@Value("${client.changelog.dir:./data/changelog}") String dir,
+			@Value("${client.changelog.segment-bytes:67108864}") int segmentBytes,
+			@Value("${client.changelog.retain-segments:8}") int retainSegments) throws IOException {
+		if (segmentBytes < 4096) {
+			throw new IllegalArgumentException("client.changelog.segment-bytes must be at least 4096: " + segmentBytes);
+		}
+		this.dir = Paths.get(dir);
+		this.segmentBytes = segmentBytes;
+		this.retainSegments = Math.max(1, retainSegments);
+		recover();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void apply(ClientChangeEvent event) {
+		try {
+			append(event);
+		} catch (IOException | RuntimeException e) {
+			log.error("Could not append {} {} to the change log", event.getType(), event.getId(), e);
+		}
+	}
+
+	/*
+	 * Acrescenta o registro e acorda quem espera em poll. Devolve o offset do registro.
+	 */
+	public long append(ClientChangeEvent event) throws IOException {
+		ClientDTO client = event.getType() == ClientChangeEvent.Type.SAVED ? event.getClient() : null;
+		byte[] name = client == null ? null : ChangeLogRecord.bytes(client.getName());
+		byte[] cpf = client == null ? null : ChangeLogRecord.bytes(client.getCpf());
+		int size = ChangeLogRecord.sizeOf(name, cpf, client != null);
+		if (size > segmentBytes - Integer.BYTES) {
+			throw new IllegalArgumentException("Change record of " + size + " bytes does not fit in a segment");
+		}
+		long offset;
+		synchronized (this) {
+			if (position + size > current.capacity) {
+				roll();
+			}
+			offset = current.base + position;
+			position += ChangeLogRecord.write(current.buffer, position, event.getId(), System.currentTimeMillis(),
+					client, name, cpf);
+			end = current.base + position;
+		}
+		for (CompletableFuture<Void> waiter : waiters) {
+			waiter.complete(null);
+		}
+		return offset;
+	}
+
+	public long getStartOffset() {
+		return segments.get(0).base;
+	}
+
+	public long getEndOffset() {
+		return end;
+	}
+
+	/*
+	 * Até limit alterações a partir de since, que precisa ser o offset de um registro
+	 * (ou o fim do log) ainda retido.
+	 */
+	public ChangeLogPageDTO read(long since, int limit) {
+		long end = this.end;
+		List<Segment> segments = this.segments;
+		if (since > end) {
+			throw new InvalidParameterException("Offset " + since + " is past the end of the change log (" + end + ")");
+		}
+		if (since < segments.get(0).base) {
+			throw new InvalidParameterException("Offset " + since + " is no longer retained; the change log starts at "
+					+ segments.get(0).base);
+		}
+		int index = segments.size() - 1;
+		while (segments.get(index).base > since) {
+			index--;
+		}
+		List<ChangeRecordDTO> changes = new ArrayList<>();
+		ChangeLogRecord record = new ChangeLogRecord();
+		long offset = since;
+		while (changes.size() < limit && offset < end) {
+			if (index + 1 < segments.size() && offset >= segments.get(index + 1).base) {
+				index++;
+				continue;
+			}
+			Segment segment = segments.get(index);
+			int at = (int) (offset - segment.base);
+			if (!ChangeLogRecord.isComplete(segment.buffer, at, segment.capacity)) {
+				throw new InvalidParameterException("Offset " + offset + " is not the start of a change record");
+			}
+			record.wrap(segment.buffer, at, offset);
+			changes.add(new ChangeRecordDTO(offset, record.getType() == ChangeLogRecord.SAVED ? "SAVED" : "DELETED",
+					record.getId(), record.getAt(), record.getClient()));
+			offset = record.getNextOffset();
+		}
+		return new ChangeLogPageDTO(changes, offset);
+	}
+
+	/*
+	 * Como read, mas sem alterações a partir de since espera até waitMs por um novo registro
+	 * (long-poll) antes de responder, sem ocupar um thread enquanto espera.
+	 */
+	public CompletableFuture<ChangeLogPageDTO> poll(long since, int limit, long waitMs) {
+		CompletableFuture<Void> appended = new CompletableFuture<>();
+		waiters.add(appended);
+		ChangeLogPageDTO page;
+		try {
+			page = read(since, limit);
+		} catch (RuntimeException e) {
+			waiters.remove(appended);
+			throw e;
+		}
+		if (!page.getChanges().isEmpty() || waitMs <= 0) {
+			waiters.remove(appended);
+			return CompletableFuture.completedFuture(page);
+		}
+		appended.completeOnTimeout(null, waitMs, TimeUnit.MILLISECONDS)
+				.whenComplete((x, e) -> waiters.remove(appended));
+		return appended.thenApplyAsync(x -> read(since, limit));
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		current.buffer.force();
+	}
+
+	private void recover() throws IOException {
+		Files.createDirectories(dir);
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		files.sort(Comparator.comparingLong(ClientChangeLog::base));
+		List<Segment> recovered = new ArrayList<>();
+		for (Path file : files) {
+			recovered.add(open(file, base(file), false));
+		}
+		if (recovered.isEmpty()) {
+			recovered.add(open(dir.resolve(name(0)), 0, true));
+		}
+		segments = Collections.unmodifiableList(recovered);
+		current = recovered.get(recovered.size() - 1);
+		int at = 0;
+		while (ChangeLogRecord.isComplete(current.buffer, at, current.capacity)) {
+			at += ChangeLogRecord.HEADER_BYTES + current.buffer.getInt(at);
+		}
+		position = at;
+		end = current.base + at;
+		if (ChangeLogRecord.isSealed(current.buffer, at, current.capacity)) {
+			roll();
+		} else if (current.buffer.getInt(at) != 0) {
+			log.warn("Discarding an incomplete change record at offset {}", end);
+			current.buffer.putInt(at, 0);
+		}
+		log.info("Change log in {}: offsets {} to {} in {} segment(s)", dir, getStartOffset(), end, segments.size());
+	}
+
+	/*
+	 * Encerra o segmento atual e começa outro no mesmo offset; descarta os mais antigos
+	 * além de retain-segments.
+	 */
+	private void roll() throws IOException {
+		if (position + Integer.BYTES <= current.capacity) {
+			current.buffer.putInt(position, ChangeLogRecord.SEALED);
+		}
+		current.buffer.force();
+		long base = current.base + position;
+		Segment next = open(dir.resolve(name(base)), base, true);
+		List<Segment> updated = new ArrayList<>(segments);
+		updated.add(next);
+		while (updated.size() > retainSegments) {
+			Files.deleteIfExists(updated.remove(0).file);
+		}
+		segments = Collections.unmodifiableList(updated);
+		current = next;
+		position = 0;
+	}
+
+	private Segment open(Path file, long base, boolean create) throws IOException {
+		try (FileChannel channel = create
+				? FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			int capacity = create ? segmentBytes : (int) channel.size();
+			return new Segment(file, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+		}
+	}
+
+	static String name(long base) {
+		return String.format("%s%020d%s", PREFIX, base, SUFFIX);
+	}
+
+	static long base(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+	}
+
+	private static final class Segment {
+
+		private final Path file;
+		private final long base;
+		private final MappedByteBuffer buffer;
+		private final int capacity;
+
+		private Segment(Path file, long base, MappedByteBuffer buffer, int capacity) {
+			this.file = file;
+			this.base = base;
+			this.buffer = buffer;
+			this.capacity = capacity;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.iftm.client.services.events;
+
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Escrita em um cliente, publicada pelo ClientService para quem mantém cópias dos dados
+ * fora do banco. Dentro de uma transação, quem escuta com @TransactionalEventListener só
+ * recebe o evento depois do commit; um rollback o descarta.
+ */
+public final class ClientChangeEvent {
+
+	public enum Type {
+		SAVED, DELETED
+	}
+
+	private final Type type;
+	private final Long id;
+	private final ClientDTO client;
+
+	private ClientChangeEvent(Type type, Long id, ClientDTO client) {
+		this.type = type;
+		this.id = id;
+		this.client = client;
+	}
+
+	public static ClientChangeEvent saved(ClientDTO client) {
+		return new ClientChangeEvent(Type.SAVED, client.getId(), new ClientDTO(client));
+	}
+
+	public static ClientChangeEvent deleted(Long id) {
+		return new ClientChangeEvent(Type.DELETED, id, null);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	/*
+	 * Estado gravado (cópia própria); null em DELETED.
+	 */
+	public ClientDTO getClient() {
+		return client;
+	}
+}
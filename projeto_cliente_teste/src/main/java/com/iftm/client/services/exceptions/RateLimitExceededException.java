@@ -0,0 +1,19 @@
+package com.iftm.client.services.exceptions;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	private final Duration retryAfter;
+	
+	public RateLimitExceededException(String msg, Duration retryAfter) {
+		super(msg);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+}
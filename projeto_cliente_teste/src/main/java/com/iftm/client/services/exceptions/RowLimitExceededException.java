@@ -0,0 +1,10 @@
+package com.iftm.client.services.exceptions;
+
+public class RowLimitExceededException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	public RowLimitExceededException(String msg) {
+		super(msg);
+	}
+
+}
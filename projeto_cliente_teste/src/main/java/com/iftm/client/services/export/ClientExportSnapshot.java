@@ -0,0 +1,143 @@
+package com.iftm.client.services.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.iftm.client.services.ClientService;
+
+/*
+ * Cópia da exportação NDJSON (ClientService.exportAll) já comprimida em gzip, gravada
+ * em disco a cada client.export.snapshot.interval-ms, para que quem baixa a tabela inteira
+ * (GET /clients/export/snapshot) não passe pelo banco. Cada cópia vai para um arquivo novo
+ * (clients-<epoch-ms>.ndjson.gz) e só então passa a ser a atual; as client.export.snapshot.retain
+ * anteriores são mantidas para os downloads ainda em andamento e as mais velhas, apagadas.
+ * Desligado por padrão (client.export.snapshot.enabled).
+ */
+@Component
+@EnableScheduling
+public class ClientExportSnapshot {
+
+	private static final Logger log = LoggerFactory.getLogger(ClientExportSnapshot.class);
+
+	private static final String PREFIX = "clients-";
+	private static final String SUFFIX = ".ndjson.gz";
+
+	private final ClientService service;
+	private final boolean enabled;
+	private final Path directory;
+	private final int retain;
+
+	private volatile Snapshot current;
+
+	public ClientExportSnapshot(ClientService service,
+			@Value("${client.export.snapshot.enabled:false}") boolean enabled,
+			@Value("${client.export.snapshot.dir:./data/export}") String directory,
+			@Value("${client.export.snapshot.retain:2}") int retain) {
+		this.service = service;
+		this.enabled = enabled;
+		this.directory = Paths.get(directory);
+		this.retain = retain;
+	}
+
+	public Optional<Snapshot> current() {
+		return Optional.ofNullable(current);
+	}
+
+	@Scheduled(fixedDelayString = "${client.export.snapshot.interval-ms:300000}")
+	public void scheduledRefresh() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			refresh();
+		} catch (IOException | RuntimeException e) {
+			log.warn("Export snapshot failed; still serving {}", current, e);
+		}
+	}
+
+	public synchronized Snapshot refresh() throws IOException {
+		Files.createDirectories(directory);
+		long started = System.nanoTime();
+		Instant createdAt = Instant.now();
+		Path file = directory.resolve(PREFIX + createdAt.toEpochMilli() + SUFFIX);
+		Path tmp = directory.resolve(file.getFileName() + ".tmp");
+		try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16),
+				1 << 16)) {
+			service.exportAll(out);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+		Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+		current = new Snapshot(file, Files.size(file), createdAt);
+		log.info("Export snapshot {} ({} bytes) written in {} ms", file, current.getSize(),
+				(System.nanoTime() - started) / 1_000_000);
+		deleteOldSnapshots();
+		return current;
+	}
+
+	private void deleteOldSnapshots() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		Collections.sort(files, Collections.reverseOrder());
+		for (Path old : files.subList(Math.min(files.size(), 1 + retain), files.size())) {
+			Files.deleteIfExists(old);
+		}
+	}
+
+	public static class Snapshot {
+
+		private final Path file;
+		private final long size;
+		private final Instant createdAt;
+
+		Snapshot(Path file, long size, Instant createdAt) {
+			this.file = file;
+			this.size = size;
+			this.createdAt = createdAt;
+		}
+
+		public Path getFile() {
+			return file;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public Instant getCreatedAt() {
+			return createdAt;
+		}
+
+		/* Fraco (W/): a mesma cópia sai comprimida ou não, conforme o Accept-Encoding. */
+		public String getETag() {
+			return "W/\"snapshot-" + createdAt.toEpochMilli() + "\"";
+		}
+
+		@Override
+		public String toString() {
+			return file + " (" + createdAt + ")";
+		}
+	}
+}
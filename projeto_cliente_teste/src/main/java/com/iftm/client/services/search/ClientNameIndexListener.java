@@ -0,0 +1,31 @@
+package com.iftm.client.services.search;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.iftm.client.entities.Client;
+
+/*
+ * Listener JPA de Client que mantém o NameSearchIndex atualizado.
+ * Instanciado pelo Hibernate através do container de beans do Spring, que injeta o índice.
+ * As alterações só chegam ao índice depois do commit, então um rollback não o suja.
+ */
+public class ClientNameIndexListener {
+
+	@Autowired
+	private NameSearchIndex index;
+
+	@PostPersist
+	@PostUpdate
+	public void saved(Client client) {
+		index.putAfterCommit(client.getId(), client.getName());
+	}
+
+	@PostRemove
+	public void removed(Client client) {
+		index.removeAfterCommit(client.getId());
+	}
+}
@@ -0,0 +1,199 @@
+package com.iftm.client.services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.repositories.ClientNameView;
+import com.iftm.client.repositories.ClientRepository;
+
+/*
+ * Índice invertido de trigramas sobre Client.name, mantido em memória.
+ * Os nomes são comparados sem acentos e em minúsculas ("Conceição" == "conceicao"),
+ * o que permite busca por trecho do nome sem o LIKE '%...%' que percorre a tabela.
+ */
+@Component
+public class NameSearchIndex {
+
+	private static final int GRAM = 3;
+
+	private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+	private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Value("${client.search.min-similarity:0.5}")
+	private double minSimilarity;
+
+	/*
+	 * Os clientes do import.sql (e os gravados antes desta instância subir)
+	 * não passam pelos listeners da entidade, então o índice é carregado do banco.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		clear();
+		transactionTemplate.execute(status -> {
+			try (Stream<ClientNameView> stream = repository.streamNames()) {
+				stream.forEach(x -> put(x.getId(), x.getName()));
+			}
+			return null;
+		});
+	}
+
+	public synchronized void put(Long id, String name) {
+		remove(id);
+		if (id == null || name == null) {
+			return;
+		}
+		String folded = fold(name);
+		names.put(id, folded);
+		for (String gram : grams(" " + folded + " ")) {
+			postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+	}
+
+	public synchronized void remove(Long id) {
+		if (id == null) {
+			return;
+		}
+		String folded = names.remove(id);
+		if (folded == null) {
+			return;
+		}
+		for (String gram : grams(" " + folded + " ")) {
+			Set<Long> ids = postings.get(gram);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Versões de put/remove que, dentro de uma transação, só tocam o índice depois do
+	 * commit; um rollback não o suja. Fora de transação aplicam na hora.
+	 */
+	public void putAfterCommit(Long id, String name) {
+		afterCommit(() -> put(id, name));
+	}
+
+	public void removeAfterCommit(Long id) {
+		afterCommit(() -> remove(id));
+	}
+
+	public synchronized void clear() {
+		postings.clear();
+		names.clear();
+	}
+
+	public int size() {
+		return names.size();
+	}
+
+	/*
+	 * Retorna os ids em ordem de relevância: fração dos trigramas da busca presentes
+	 * no nome, depois quem contém o trecho exato, depois o nome mais curto.
+	 * Buscas com menos de três letras não formam trigramas e varrem os nomes em memória.
+	 */
+	public List<Long> search(String query) {
+		String folded = fold(query);
+		if (folded.isEmpty()) {
+			return List.of();
+		}
+		Set<String> queryGrams = grams(" " + folded);
+		int total = Math.max(1, queryGrams.size());
+		Map<Long, Integer> matches = new HashMap<>();
+		if (folded.length() < GRAM) {
+			names.forEach((id, name) -> {
+				if (name.contains(folded)) {
+					matches.put(id, total);
+				}
+			});
+		} else {
+			for (String gram : queryGrams) {
+				Set<Long> ids = postings.get(gram);
+				if (ids != null) {
+					ids.forEach(id -> matches.merge(id, 1, Integer::sum));
+				}
+			}
+		}
+
+		List<Hit> hits = new ArrayList<>();
+		matches.forEach((id, count) -> {
+			String name = names.get(id);
+			double score = (double) count / total;
+			if (name != null && score >= minSimilarity) {
+				hits.add(new Hit(id, score, name.contains(folded), name.length()));
+			}
+		});
+		hits.sort(Comparator.comparingDouble((Hit x) -> -x.score)
+				.thenComparing(x -> !x.exact)
+				.thenComparingInt(x -> x.length)
+				.thenComparingLong(x -> x.id));
+		return hits.stream().map(x -> x.id).collect(Collectors.toList());
+	}
+
+	static String fold(String text) {
+		String decomposed = Normalizer.normalize(text == null ? "" : text, Normalizer.Form.NFD);
+		return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+	}
+
+	private static Set<String> grams(String text) {
+		Set<String> grams = new LinkedHashSet<>();
+		for (int i = 0; i + GRAM <= text.length(); i++) {
+			grams.add(text.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	private static class Hit {
+		final long id;
+		final double score;
+		final boolean exact;
+		final int length;
+
+		Hit(long id, double score, boolean exact, int length) {
+			this.id = id;
+			this.score = score;
+			this.exact = exact;
+			this.length = length;
+		}
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
@@ -0,0 +1,412 @@
+package com.iftm.client.services.writebehind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.services.events.ClientChangeEvent;
+import com.iftm.client.services.exceptions.RateLimitExceededException;
+import com.iftm.client.services.search.NameSearchIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Modo write-behind de POST /clients (client.write-behind.enabled): o cliente novo recebe
+ * na hora um id de um bloco reservado na sequence de Client, é escrito no
+ * WriteBehindJournal e entra em uma fila sem locks limitada a client.write-behind.queue-capacity;
+ * a resposta sai sem esperar o banco. Um único thread grava a fila em lotes, um INSERT em
+ * batch JDBC por transação, quando há client.write-behind.batch-size linhas ou quando a
+ * mais antiga espera client.write-behind.max-delay-ms. Com a fila cheia o insert é
+ * recusado com 429.
+ *
+ * Os INSERTs não passam pelos listeners JPA: índice de nomes e ClientChangeEvent são
+ * atualizados aqui, após o commit de cada lote. Até o lote ser gravado o cliente não
+ * aparece nas consultas. Na subida, as linhas do diário que não chegaram ao banco são
+ * gravadas antes de aceitar novos inserts.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "client.write-behind.enabled", havingValue = "true")
+public class ClientWriteBehind {
+
+	private static final Logger log = LoggerFactory.getLogger(ClientWriteBehind.class);
+
+	private static final String INSERT = "INSERT INTO tb_client (id, name, cpf, income, birth_date, children, version) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+	private final TransactionTemplate transactionTemplate;
+	private final DataSource dataSource;
+	private final NameSearchIndex nameIndex;
+	private final ApplicationEventPublisher events;
+	private final WriteBehindJournal journal;
+	private final int capacity;
+	private final int batchSize;
+	private final long maxDelayNanos;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+	// linhas aceitas e ainda não gravadas (inclui o lote em gravação); é o limite da fila
+	private final AtomicInteger depth = new AtomicInteger();
+	private final AtomicLong accepted = new AtomicLong();
+	private volatile long completed;
+	private volatile boolean running;
+	private volatile boolean flushRequested;
+	private Thread flusher;
+
+	// bloco de ids reservado na sequence: [nextId, blockEnd)
+	private long nextId;
+	private long blockEnd;
+
+	private final Timer flushTimer;
+	private final DistributionSummary batchRows;
+	private final Counter rejected;
+	private final Counter dropped;
+
+	public ClientWriteBehind(TransactionTemplate transactionTemplate, DataSource dataSource, NameSearchIndex nameIndex,
+			ApplicationEventPublisher events, ObjectMapper objectMapper, MeterRegistry registry,
+			@Value("${client.write-behind.queue-capacity:10000}") int capacity,
+			@Value("${client.write-behind.batch-size:500}") int batchSize,
+			@Value("${client.write-behind.max-delay-ms:200}") long maxDelayMs,
+			@Value("${client.write-behind.journal-dir:./data/write-behind}") String journalDir,
+			@Value("${client.write-behind.journal-fsync:true}") boolean fsync,
+			@Value("${client.write-behind.segment-bytes:16777216}") long segmentBytes) throws IOException {
+		this.transactionTemplate = transactionTemplate;
+		this.dataSource = dataSource;
+		this.nameIndex = nameIndex;
+		this.events = events;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+		this.journal = new WriteBehindJournal(Paths.get(journalDir), segmentBytes, fsync, objectMapper);
+		Gauge.builder("client.write-behind.queue.depth", depth, AtomicInteger::get)
+				.description("Inserts accepted and not yet written to the database").register(registry);
+		Gauge.builder("client.write-behind.journal.bytes", journal, WriteBehindJournal::sizeInBytes)
+				.baseUnit("bytes").register(registry);
+		flushTimer = Timer.builder("client.write-behind.flush")
+				.description("Time to write one batch, commit included").register(registry);
+		batchRows = DistributionSummary.builder("client.write-behind.batch.rows").register(registry);
+		rejected = Counter.builder("client.write-behind.rejected").description("Inserts refused with the queue full")
+				.register(registry);
+		dropped = Counter.builder("client.write-behind.dropped")
+				.description("Accepted inserts the database refused (constraint or invalid data)").register(registry);
+	}
+
+	@PostConstruct
+	public void start() throws IOException {
+		replay(journal.readLeftovers());
+		journal.open();
+		running = true;
+		flusher = new Thread(this::flushLoop, "client-write-behind");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	/*
+	 * Aceita o insert: reserva um lugar na fila (ou 429), atribui o id e grava no diário.
+	 * O ClientDTO devolvido é o que será gravado, com id, cpf normalizado e version 0.
+	 */
+	public ClientDTO enqueue(ClientDTO dto) {
+		if (!running) {
+			throw new IllegalStateException("Write-behind buffer is stopped");
+		}
+		int size;
+		do {
+			size = depth.get();
+			if (size >= capacity) {
+				rejected.increment();
+				throw new RateLimitExceededException("Write-behind queue full (" + capacity + " inserts pending)",
+						Duration.ofNanos(maxDelayNanos));
+			}
+		} while (!depth.compareAndSet(size, size + 1));
+		try {
+			ClientDTO row = new ClientDTO(nextId(), dto.getName(), Client.normalizeCpf(dto.getCpf()), dto.getIncome(),
+					dto.getBirthDate(), dto.getChildren(), 0L);
+			WriteBehindJournal.Segment segment = journal.append(row);
+			queue.offer(new Entry(row, segment, System.nanoTime()));
+			accepted.incrementAndGet();
+			if (size + 1 == batchSize) {
+				LockSupport.unpark(flusher);
+			}
+			return new ClientDTO(row);
+		} catch (IOException e) {
+			depth.decrementAndGet();
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			depth.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/*
+	 * Grava agora tudo o que foi aceito até a chamada, sem esperar os gatilhos; volta
+	 * false se não terminar dentro do prazo.
+	 */
+	public boolean flush(Duration timeout) {
+		long target = accepted.get();
+		long deadline = System.nanoTime() + timeout.toNanos();
+		flushRequested = true;
+		LockSupport.unpark(flusher);
+		while (completed < target) {
+			if (System.nanoTime() >= deadline) {
+				return false;
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		return true;
+	}
+
+	public int getQueueDepth() {
+		return depth.get();
+	}
+
+	/*
+	 * Para de aceitar, espera o thread gravar o que está na fila e fecha o diário; o que
+	 * não chegar ao banco fica no diário para a próxima subida.
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException, IOException {
+		running = false;
+		LockSupport.unpark(flusher);
+		flusher.join(TimeUnit.SECONDS.toMillis(30));
+		journal.close();
+	}
+
+	private void flushLoop() {
+		List<Entry> batch = new ArrayList<>(batchSize);
+		while (true) {
+			Entry oldest = queue.peek();
+			if (oldest == null && batch.isEmpty()) {
+				if (!running) {
+					return;
+				}
+				flushRequested = false;
+				LockSupport.parkNanos(this, maxDelayNanos);
+				continue;
+			}
+			if (batch.isEmpty()) {
+				long waited = System.nanoTime() - oldest.enqueuedAt;
+				if (running && !flushRequested && depth.get() < batchSize && waited < maxDelayNanos) {
+					LockSupport.parkNanos(this, maxDelayNanos - waited);
+					continue;
+				}
+				Entry entry;
+				while (batch.size() < batchSize && (entry = queue.poll()) != null) {
+					batch.add(entry);
+				}
+			}
+			if (write(batch)) {
+				batch.clear();
+			} else if (running) {
+				// banco indisponível: o lote fica para a próxima tentativa
+				LockSupport.parkNanos(this, Math.max(maxDelayNanos, TimeUnit.SECONDS.toNanos(1)));
+			} else {
+				log.warn("Stopping with {} inserts not written; they stay in the journal", depth.get());
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Grava o lote em uma transação. Se o banco recusar alguma linha (constraint ou dado
+	 * inválido), o lote é refeito linha a linha e só as recusadas ficam de fora. Qualquer
+	 * outra falha devolve false e o lote inteiro é tentado de novo.
+	 */
+	private boolean write(List<Entry> batch) {
+		long started = System.nanoTime();
+		try {
+			insert(batch.stream().map(x -> x.row).collect(Collectors.toList()));
+		} catch (RuntimeException e) {
+			if (!refused(e)) {
+				log.warn("Write-behind batch of {} failed; retrying", batch.size(), e);
+				return false;
+			}
+			for (Entry entry : batch) {
+				try {
+					insert(List.of(entry.row));
+				} catch (RuntimeException rowError) {
+					if (!refused(rowError)) {
+						log.warn("Write-behind row {} failed; retrying", entry.row.getId(), rowError);
+						return false;
+					}
+					dropped.increment();
+					log.error("Write-behind insert refused by the database, dropped: {}", entry.row, rowError);
+				}
+			}
+		}
+		flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		batchRows.record(batch.size());
+		release(batch);
+		return true;
+	}
+
+	private void insert(List<ClientDTO> rows) {
+		transactionTemplate.executeWithoutResult(status -> {
+			entityManager.unwrap(Session.class).doWork(connection -> {
+				try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+					for (ClientDTO row : rows) {
+						bind(ps, row);
+						ps.addBatch();
+					}
+					ps.executeBatch();
+				}
+			});
+			for (ClientDTO row : rows) {
+				nameIndex.putAfterCommit(row.getId(), row.getName());
+				events.publishEvent(ClientChangeEvent.saved(row));
+			}
+		});
+	}
+
+	private void release(List<Entry> batch) {
+		try {
+			List<Long> run = new ArrayList<>();
+			for (int i = 0; i < batch.size(); i++) {
+				run.add(batch.get(i).row.getId());
+				if (i + 1 == batch.size() || batch.get(i + 1).segment != batch.get(i).segment) {
+					journal.released(batch.get(i).segment, run);
+					run = new ArrayList<>();
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Could not trim the write-behind journal", e);
+		}
+		depth.addAndGet(-batch.size());
+		completed += batch.size();
+	}
+
+	/*
+	 * Linhas do diário da execução anterior sem marca de gravadas e que não estão no banco
+	 * (a marca pode faltar se a queda veio logo após o commit), gravadas em lotes.
+	 */
+	private void replay(List<ClientDTO> rows) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		int written = 0;
+		for (int start = 0; start < rows.size(); start += batchSize) {
+			List<ClientDTO> chunk = rows.subList(start, Math.min(start + batchSize, rows.size()));
+			Set<Long> existing = new HashSet<>(transactionTemplate.execute(status -> entityManager
+					.createQuery("SELECT c.id FROM Client c WHERE c.id IN :ids", Long.class)
+					.setParameter("ids", chunk.stream().map(ClientDTO::getId).collect(Collectors.toList()))
+					.getResultList()));
+			List<ClientDTO> missing = chunk.stream().filter(x -> !existing.contains(x.getId()))
+					.collect(Collectors.toList());
+			if (!missing.isEmpty()) {
+				insert(missing);
+				written += missing.size();
+			}
+		}
+		log.info("Write-behind journal replayed: {} inserts written, {} already in the database", written,
+				rows.size() - written);
+	}
+
+	/*
+	 * Próximo id do bloco atual; esgotado o bloco, reserva outro com um nextval na sequence
+	 * de Client (pooled-lo: o valor devolvido é o primeiro dos ID_BLOCK_SIZE ids do bloco).
+	 */
+	private synchronized long nextId() {
+		if (nextId == blockEnd) {
+			String sql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+					.getJdbcServices().getDialect().getSequenceNextValString(Client.ID_SEQUENCE);
+			try (Connection connection = dataSource.getConnection();
+					Statement statement = connection.createStatement();
+					ResultSet rs = statement.executeQuery(sql)) {
+				rs.next();
+				nextId = rs.getLong(1);
+				blockEnd = nextId + Client.ID_BLOCK_SIZE;
+			} catch (SQLException e) {
+				throw new IllegalStateException("Could not reserve a block of client ids", e);
+			}
+		}
+		return nextId++;
+	}
+
+	private static void bind(PreparedStatement ps, ClientDTO row) throws SQLException {
+		ps.setLong(1, row.getId());
+		ps.setString(2, row.getName());
+		ps.setString(3, row.getCpf());
+		if (row.getIncome() == null) {
+			ps.setNull(4, Types.DOUBLE);
+		} else {
+			ps.setDouble(4, row.getIncome());
+		}
+		if (row.getBirthDate() == null) {
+			ps.setNull(5, Types.TIMESTAMP);
+		} else {
+			ps.setTimestamp(5, Timestamp.from(row.getBirthDate()));
+		}
+		if (row.getChildren() == null) {
+			ps.setNull(6, Types.INTEGER);
+		} else {
+			ps.setInt(6, row.getChildren());
+		}
+	}
+
+	private static boolean refused(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException || cause instanceof DataException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class Entry {
+
+		private final ClientDTO row;
+		private final WriteBehindJournal.Segment segment;
+		private final long enqueuedAt;
+
+		private Entry(ClientDTO row, WriteBehindJournal.Segment segment, long enqueuedAt) {
+			this.row = row;
+			this.segment = segment;
+			this.enqueuedAt = enqueuedAt;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package com.iftm.client.services.writebehind;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iftm.client.dto.ClientDTO;
+
+/*
+ * Diário só de acréscimo do ClientWriteBehind: cada insert aceito vira uma linha NDJSON
+ * (o ClientDTO já com id) no segmento atual, clients-<n>.journal, antes de a resposta sair.
+ * Quando um lote chega ao banco, o segmento de cada linha recebe uma marca
+ * {"flushed":[ids]}, e essas linhas não são reaplicadas na subida seguinte (um cliente
+ * gravado e depois removido não volta). Cada segmento conta as linhas ainda não gravadas;
+ * um segmento antigo que chega a zero é apagado e o atual é esvaziado. Com fsync, quem
+ * grava espera o force() do segmento, e um único force() cobre todas as linhas escritas
+ * até ali.
+ */
+final class WriteBehindJournal {
+
+	private static final Logger log = LoggerFactory.getLogger(WriteBehindJournal.class);
+
+	private static final String PREFIX = "clients-";
+	private static final String SUFFIX = ".journal";
+	private static final String FLUSHED = "flushed";
+
+	private final Path dir;
+	private final long segmentBytes;
+	private final boolean fsync;
+	private final ObjectMapper objectMapper;
+
+	private final List<Segment> segments = new ArrayList<>();
+	private Segment current;
+	private long nextNumber = 1;
+
+	WriteBehindJournal(Path dir, long segmentBytes, boolean fsync, ObjectMapper objectMapper) throws IOException {
+		this.dir = dir;
+		this.segmentBytes = segmentBytes;
+		this.fsync = fsync;
+		this.objectMapper = objectMapper;
+		Files.createDirectories(dir);
+	}
+
+	/*
+	 * Linhas dos segmentos deixados por uma execução anterior que não têm marca de gravadas,
+	 * na ordem em que foram escritas. Uma última linha incompleta (queda no meio da escrita)
+	 * é ignorada.
+	 */
+	synchronized List<ClientDTO> readLeftovers() throws IOException {
+		List<ClientDTO> rows = new ArrayList<>();
+		Set<Long> flushed = new HashSet<>();
+		for (Path file : leftoverFiles()) {
+			try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.isEmpty()) {
+						continue;
+					}
+					try {
+						JsonNode node = objectMapper.readTree(line);
+						if (node.has(FLUSHED)) {
+							node.get(FLUSHED).forEach(id -> flushed.add(id.asLong()));
+						} else {
+							rows.add(objectMapper.treeToValue(node, ClientDTO.class));
+						}
+					} catch (JsonProcessingException e) {
+						log.warn("Skipping unreadable line in {}: {}", file, line);
+					}
+				}
+			}
+			nextNumber = Math.max(nextNumber, number(file) + 1);
+		}
+		rows.removeIf(row -> flushed.contains(row.getId()));
+		return rows;
+	}
+
+	/*
+	 * Apaga os segmentos já reaplicados e abre o primeiro desta execução.
+	 */
+	synchronized void open() throws IOException {
+		for (Path file : leftoverFiles()) {
+			Files.delete(file);
+		}
+		current = newSegment();
+	}
+
+	/*
+	 * Escreve a linha no segmento atual e devolve o segmento, que conta a linha como
+	 * pendente até released().
+	 */
+	Segment append(ClientDTO row) throws IOException {
+		ByteBuffer line = line(objectMapper.writeValueAsBytes(row));
+		Segment segment;
+		long end;
+		synchronized (this) {
+			if (current.size >= segmentBytes) {
+				current = newSegment();
+			}
+			segment = current;
+			write(segment, line);
+			segment.pending++;
+			end = segment.written;
+		}
+		if (fsync) {
+			segment.sync(end);
+		}
+		return segment;
+	}
+
+	/*
+	 * As linhas ids do segmento chegaram ao banco (ou foram recusadas por ele). Com outras
+	 * ainda pendentes, o segmento recebe a marca delas; sem pendentes, um segmento antigo é
+	 * apagado e o atual volta a ficar vazio. A marca não espera force(): perdida numa queda
+	 * do sistema, a subida ainda confere no banco quais ids já existem.
+	 */
+	synchronized void released(Segment segment, List<Long> ids) throws IOException {
+		segment.pending -= ids.size();
+		if (segment.pending > 0) {
+			write(segment, line(objectMapper.writeValueAsBytes(Map.of(FLUSHED, ids))));
+			return;
+		}
+		if (segment == current) {
+			if (segment.size > 0) {
+				segment.channel.truncate(0);
+				segment.size = 0;
+			}
+		} else {
+			segment.channel.close();
+			Files.deleteIfExists(segment.file);
+			segments.remove(segment);
+		}
+	}
+
+	synchronized long sizeInBytes() {
+		long bytes = 0;
+		for (Segment segment : segments) {
+			bytes += segment.size;
+		}
+		return bytes;
+	}
+
+	synchronized void close() throws IOException {
+		for (Segment segment : segments) {
+			segment.channel.close();
+			if (segment.pending == 0) {
+				Files.deleteIfExists(segment.file);
+			}
+		}
+		segments.clear();
+	}
+
+	private static ByteBuffer line(byte[] json) {
+		ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n');
+		line.flip();
+		return line;
+	}
+
+	private static void write(Segment segment, ByteBuffer line) throws IOException {
+		int bytes = line.remaining();
+		while (line.hasRemaining()) {
+			segment.channel.write(line);
+		}
+		segment.size += bytes;
+		segment.written += bytes;
+	}
+
+	private Segment newSegment() throws IOException {
+		Path file = dir.resolve(PREFIX + nextNumber++ + SUFFIX);
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		Segment segment = new Segment(file, channel);
+		segments.add(segment);
+		return segment;
+	}
+
+	private List<Path> leftoverFiles() throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+			stream.forEach(files::add);
+		}
+		files.sort(Comparator.comparingLong(WriteBehindJournal::number));
+		return files;
+	}
+
+	private static long number(Path file) {
+		String name = file.getFileName().toString();
+		return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+	}
+
+	static final class Segment {
+
+		private final Path file;
+		private final FileChannel channel;
+		// alterados só com o lock do journal; written (bytes já escritos, sem voltar a
+		// zero) também é lido por sync()
+		private long size;
+		private volatile long written;
+		private int pending;
+		// guardado pelo próprio segmento
+		private long synced;
+
+		private Segment(Path file, FileChannel channel) {
+			this.file = file;
+			this.channel = channel;
+		}
+
+		/*
+		 * Garante no disco tudo o que foi escrito até end. Quem chega enquanto outro
+		 * force() está em andamento espera e, em geral, já sai coberto por ele.
+		 */
+		private synchronized void sync(long end) throws IOException {
+			if (synced >= end) {
+				return;
+			}
+			long target = written;
+			try {
+				channel.force(false);
+			} catch (ClosedChannelException e) {
+				// segmento já gravado no banco e apagado
+			}
+			synced = target;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.iftm.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+/*
+ * O perfil fast-start descarta as auto-configurations fora da lista (o MockMvc inclusive),
+ * por isso este teste sobe o Tomcat de verdade, com um banco próprio.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:faststart")
+@ActiveProfiles({ "test", "fast-start" })
+public class FastStartProfileTest {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	@DisplayName("Verificar se o perfil fast-start atende GET /clients/id/{id} sem as auto-configurations fora da lista")
+	public void testarPerfilFastStartAtendeBuscaPorId() {
+		ResponseEntity<String> response = restTemplate.getForEntity("/clients/id/{id}", String.class, 1);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertTrue(response.getBody().contains("\"id\":1"));
+		assertFalse(context.getBeanNamesForType(RestTemplateBuilder.class).length > 0);
+	}
+}
@@ -0,0 +1,131 @@
+package com.iftm.client.resources;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.changelog.ChangeLogTailer;
+import com.iftm.client.services.changelog.ClientChangeLog;
+
+@SpringBootTest(properties = { "client.changelog.enabled=true", "client.changelog.dir=" + ChangeLogTest.CHANGELOG_DIR,
+		"client.changelog.segment-bytes=4096" })
+@AutoConfigureMockMvc
+public class ChangeLogTest {
+
+	static final String CHANGELOG_DIR = "target/changelog-test";
+
+	@Autowired
+	private MockMvc mockMVC;
+
+	@Autowired
+	private ClientService service;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private ClientChangeLog changeLog;
+
+	@Test
+	@DisplayName("Verificar se get/clients/changes devolve insert, update e delete desde o offset, com long-poll e leitura direta dos arquivos")
+	public void testarEndPointChangesDevolveAlteracoesDesdeOffset() throws Exception {
+		long inicio = changeLog.getEndOffset();
+		ClientDTO novo = service.insert(new ClientDTO(null, "Registro CDC",
+			"98765432100", 4321.0, Instant.parse("1985-05-05T00:00:00Z"), 2));
+		novo.setIncome(5432.0);
+		service.update(novo.getId(), novo);
+		long versaoGravada = repository.findVersionById(novo.getId()).get();
+		service.delete(novo.getId());
+		// segmentos de 4 KB: o log passa por mais de um arquivo
+		for (int i = 0; i < 40; i++) {
+			ClientDTO outro = service.insert(new ClientDTO(null, "Registro CDC " + i,
+				"98765432100", 1.0, null, null));
+			service.delete(outro.getId());
+		}
+		long fim = changeLog.getEndOffset();
+
+		mockMVC.perform(get("/clients/changes")
+			.param("since", String.valueOf(inicio))
+			.param("limit", "3")
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.changes[*].type", contains("SAVED", "SAVED", "DELETED")))
+			.andExpect(jsonPath("$.changes[*].id", everyItem(is(novo.getId().intValue()))))
+			.andExpect(jsonPath("$.changes[0].offset").value(inicio))
+			.andExpect(jsonPath("$.changes[0].client.income").value(4321.0))
+			.andExpect(jsonPath("$.changes[0].client.cpf").value("98765432100"))
+			.andExpect(jsonPath("$.changes[0].client.version").value(0))
+			.andExpect(jsonPath("$.changes[1].client.income").value(5432.0))
+			.andExpect(jsonPath("$.changes[1].client.version").value(versaoGravada))
+			.andExpect(jsonPath("$.changes[2].client").doesNotExist());
+		mockMVC.perform(get("/clients/changes")
+			.param("since", String.valueOf(inicio))
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.changes", hasSize(83)))
+			.andExpect(jsonPath("$.nextOffset").value(fim));
+		mockMVC.perform(get("/clients/changes")
+			.param("since", String.valueOf(fim))
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.changes", hasSize(0)))
+			.andExpect(jsonPath("$.nextOffset").value(fim));
+		mockMVC.perform(get("/clients/changes")
+			.param("since", String.valueOf(inicio + 1))
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isUnprocessableEntity());
+		mockMVC.perform(get("/clients/changes")
+			.param("since", String.valueOf(fim + 1))
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isUnprocessableEntity());
+
+		// o mesmo trecho lido direto dos arquivos mapeados
+		List<Long> ids = new ArrayList<>();
+		long seguinte;
+		try (ChangeLogTailer tailer = new ChangeLogTailer(Paths.get(CHANGELOG_DIR))) {
+			seguinte = tailer.poll(inicio, 1000, registro -> ids.add(registro.getId()));
+		}
+		assertEquals(fim, seguinte);
+		assertEquals(83, ids.size());
+		assertEquals(novo.getId(), ids.get(0));
+
+		// long-poll: a requisição fica aberta até a próxima gravação
+		MvcResult espera = mockMVC.perform(get("/clients/changes")
+			.param("since", String.valueOf(fim))
+			.param("waitMs", "10000")
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		ClientDTO ultimo = service.insert(new ClientDTO(null, "Registro CDC Espera",
+			"98765432100", 1.0, null, null));
+		mockMVC.perform(asyncDispatch(espera))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.changes[0].id").value(ultimo.getId().intValue()))
+			.andExpect(jsonPath("$.changes[0].offset").value(fim));
+		service.delete(ultimo.getId());
+	}
+}
@@ -1,22 +1,50 @@
 package com.iftm.client.resources;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.sql.DataSource;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.repositories.ClientRepository;
 import com.iftm.client.services.ClientService;
+import com.iftm.client.services.export.ClientExportSnapshot;
+import com.jayway.jsonpath.JsonPath;
 
 //necessário para utilizar o MockMVC
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@SpringBootTest
+@SpringBootTest(properties = {"client.export.snapshot.dir=target/export-snapshot"})
 @AutoConfigureMockMvc
+@AutoConfigureMetrics
 public class ClientResourceIntegrationTest {
     @Autowired
     private MockMvc mockMVC;
@@ -27,6 +55,15 @@ public class ClientResourceIntegrationTest {
     @Autowired
     private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
+    @Autowired
+    private ClientRepository repository;
+
+    @Autowired
+    private ClientExportSnapshot snapshots;
+
+    @Autowired
+    private DataSource dataSource;
+
     /**
      * Caso de testes : Verificar se o endpoint get/clients/ retorna todos os clientes existentes
      * Arrange:
@@ -284,4 +321,602 @@ public class ClientResourceIntegrationTest {
             .andExpect(status().isNotFound())
             .andExpect(jsonPath("$.error").value("Resource not found"));
     }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/income/keyset percorre as páginas pelo cursor sem repetir clientes")
+    public void testarEndPointFindByIncomeKeysetPercorrePaginasPeloCursor() throws Exception {
+        double salarioResultado = 1500.0; // Chimamanda Adichie (10), Conceição Evaristo (1), Yuval Noah Harari (9)
+        MvcResult primeiraPagina = mockMVC.perform(get("/clients/income/keyset")
+            .param("income", String.valueOf(salarioResultado))
+            .param("linesPerPage", "2")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].id", contains(10, 1)))
+            .andExpect(jsonPath("$.hasNext").value(true))
+            .andExpect(jsonPath("$.totalElements").doesNotExist())
+            .andReturn();
+        String cursor = JsonPath.read(primeiraPagina.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMVC.perform(get("/clients/income/keyset")
+            .param("income", String.valueOf(salarioResultado))
+            .param("linesPerPage", "2")
+            .param("cursor", cursor)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].id", contains(9)))
+            .andExpect(jsonPath("$.hasNext").value(false))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/keyset retorna 422 quando o cursor é inválido")
+    public void testarEndPointFindAllKeysetRetornaErroQuandoCursorInvalido() throws Exception {
+        mockMVC.perform(get("/clients/keyset")
+            .param("cursor", "cursor-invalido")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(jsonPath("$.error").value("Invalid parameter"));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/export transmite os clientes em NDJSON, um por linha")
+    public void testarEndPointExportRetornaClientesEmNdjson() throws Exception {
+        MvcResult inicio = mockMVC.perform(get("/clients/export").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        MvcResult resultado = mockMVC.perform(asyncDispatch(inicio))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andReturn();
+
+        // exportação segue a ordem do id
+        String[] linhas = resultado.getResponse().getContentAsString().split("\n");
+        long idAnterior = 0;
+        for (String linha : linhas) {
+            long id = objectMapper.readTree(linha).get("id").asLong();
+            assertTrue(id > idAnterior);
+            idAnterior = id;
+        }
+        assertTrue(linhas.length >= 11);
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint POST /clients/batch grava as linhas válidas e reporta a linha com erro sem desfazer o lote")
+    public void testarEndPointInsertAllRetornaResultadoPorLinha() throws Exception {
+        ClientDTO valido1 = new ClientDTO(null, "Lote Um", "55500000001", 100.0, Instant.parse("2000-01-01T00:00:00Z"), 0);
+        ClientDTO invalido = new ClientDTO(null, "x".repeat(300), "55500000002", 100.0, Instant.parse("2000-01-01T00:00:00Z"), 0);
+        ClientDTO valido2 = new ClientDTO(null, "Lote Dois", "55500000003", 100.0, Instant.parse("2000-01-01T00:00:00Z"), 0);
+        String json = objectMapper.writeValueAsString(List.of(valido1, invalido, valido2));
+
+        MvcResult resultado = mockMVC.perform(post("/clients/batch")
+            .content(json)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(3))
+            .andExpect(jsonPath("$.succeeded").value(2))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.items[1].status").value("FAILED"))
+            .andExpect(jsonPath("$.items[1].id").doesNotExist())
+            .andExpect(jsonPath("$.items[2].status").value("CREATED"))
+            .andReturn();
+
+        // remove os clientes do lote para não interferir nos demais testes
+        String corpo = resultado.getResponse().getContentAsString();
+        service.delete(((Number) JsonPath.read(corpo, "$.items[0].id")).longValue());
+        service.delete(((Number) JsonPath.read(corpo, "$.items[2].id")).longValue());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/id/{id} usa o cache e se o PUT invalida o valor em cache")
+    public void testarEndPointBuscarPorIdUsaCacheEInvalidaNoUpdate() throws Exception {
+        Long idExistente = 6L; // Djamila Ribeiro, income 4500.0
+        long acertosAntes = service.cacheStats().getHits();
+        mockMVC.perform(get("/clients/id/{id}", idExistente).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+        mockMVC.perform(get("/clients/id/{id}", idExistente).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.income").value(4500.0));
+        assertTrue(service.cacheStats().getHits() > acertosAntes);
+
+        ClientDTO clientDTO = service.findById(idExistente);
+        clientDTO.setIncome(4600.0);
+        mockMVC.perform(put("/clients/{id}", idExistente)
+            .content(objectMapper.writeValueAsString(clientDTO))
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+        mockMVC.perform(get("/clients/id/{id}", idExistente).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.income").value(4600.0));
+
+        // desfaz a alteração (relendo o cliente: a versão mudou com o PUT)
+        clientDTO = service.findById(idExistente);
+        clientDTO.setIncome(4500.0);
+        service.update(idExistente, clientDTO);
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/cache/stats expõe os contadores do cache")
+    public void testarEndPointCacheStatsRetornaContadores() throws Exception {
+        mockMVC.perform(get("/clients/cache/stats").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.hits").exists())
+            .andExpect(jsonPath("$.misses").exists())
+            .andExpect(jsonPath("$.evictions").exists())
+            .andExpect(jsonPath("$.size").exists());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/cpf/ busca por prefixo por padrão, ignorando pontuação do CPF")
+    public void testarEndPointFindByCPFPrefixoRetornaClientesCorretos() throws Exception {
+        mockMVC.perform(get("/clients/cpf/")
+            .param("cpf", "106.192.448")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].id", containsInAnyOrder(1, 2, 6, 9)));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/cpf/ busca por trecho do CPF apenas com mode=infix")
+    public void testarEndPointFindByCPFInfixRetornaClientesCorretos() throws Exception {
+        mockMVC.perform(get("/clients/cpf/")
+            .param("cpf", "9244")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(0));
+        mockMVC.perform(get("/clients/cpf/")
+            .param("cpf", "9244")
+            .param("mode", "infix")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[*].id", containsInAnyOrder(1, 2, 4, 6, 9)));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/search encontra clientes por trecho do nome ordenados por relevância")
+    public void testarEndPointSearchByNameRetornaClientesPorRelevancia() throws Exception {
+        mockMVC.perform(get("/clients/search")
+            .param("name", "SARAMAG")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value(7))
+            .andExpect(jsonPath("$.content[0].name").value("Jose Saramago"));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/search ignora acentos e acompanha inserções e remoções")
+    public void testarEndPointSearchByNameIgnoraAcentosEAcompanhaAlteracoes() throws Exception {
+        ClientDTO novo = service.insert(new ClientDTO(null, "João Ninguém", "55511122233", 100.0, Instant.parse("2000-01-01T00:00:00Z"), 0));
+
+        mockMVC.perform(get("/clients/search")
+            .param("name", "joao ninguem")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value(novo.getId()))
+            .andExpect(jsonPath("$.totalElements").value(1));
+
+        service.delete(novo.getId());
+
+        mockMVC.perform(get("/clients/search")
+            .param("name", "joao ninguem")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint /actuator/prometheus expõe os timers dos endpoints e do repositório e o contador de exceções")
+    public void testarEndPointPrometheusExpoeMetricas() throws Exception {
+        mockMVC.perform(get("/clients/").accept(MediaType.APPLICATION_JSON));
+        mockMVC.perform(get("/clients/id/{id}", 999L).accept(MediaType.APPLICATION_JSON));
+
+        mockMVC.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+            .andExpect(content().string(containsString("client_repository_invocations_seconds_count{exception=\"none\",method=\"findAllProjected\",repository=\"ClientRepository\",}")))
+            .andExpect(content().string(containsString("client_exceptions_total{exception=\"ResourceNotFoundException\",handler=\"entityNotFound\",}")))
+            .andExpect(content().string(containsString("hikaricp_connections")))
+            .andExpect(content().string(containsString("hibernate_")));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/stats/income retorna totais, histograma por largura e quebra por filhos (base import.sql)")
+    public void testarEndPointIncomeStatsRetornaAgregadosCorretos() throws Exception {
+        // faixa 4000..12000: ids 4, 6, 7, 8 e 11
+        mockMVC.perform(get("/clients/stats/income")
+            .param("minIncome", "4000")
+            .param("maxIncome", "12000")
+            .param("bucketWidth", "2500")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total.count").value(5))
+            .andExpect(jsonPath("$.total.sum").value(31500.0))
+            .andExpect(jsonPath("$.total.min").value(4500.0))
+            .andExpect(jsonPath("$.total.max").value(10000.0))
+            .andExpect(jsonPath("$.total.avg").value(6300.0))
+            .andExpect(jsonPath("$.histogram.length()").value(4))
+            .andExpect(jsonPath("$.histogram[0].from").value(2500.0))
+            .andExpect(jsonPath("$.histogram[0].to").value(5000.0))
+            .andExpect(jsonPath("$.histogram[0].count").value(2))
+            .andExpect(jsonPath("$.histogram[3].from").value(10000.0))
+            .andExpect(jsonPath("$.histogram[3].count").value(1))
+            .andExpect(jsonPath("$.byChildren[*].children", contains(0, 1, 2)))
+            .andExpect(jsonPath("$.byChildren[0].count").value(3))
+            .andExpect(jsonPath("$.byChildren[0].sum").value(22500.0));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/stats/income usa os limites informados e recusa limites fora de ordem")
+    public void testarEndPointIncomeStatsComLimitesRetornaFaixasCorretas() throws Exception {
+        mockMVC.perform(get("/clients/stats/income")
+            .param("minIncome", "4000")
+            .param("maxIncome", "12000")
+            .param("bounds", "5000,10000")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.histogram[*].count", contains(2, 2, 1)))
+            .andExpect(jsonPath("$.histogram[0].from").doesNotExist())
+            .andExpect(jsonPath("$.histogram[2].from").value(10000.0))
+            .andExpect(jsonPath("$.histogram[2].to").doesNotExist());
+
+        mockMVC.perform(get("/clients/stats/income")
+            .param("bounds", "10000,5000")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/stats/income recusa limites e largura de faixa que não são números finitos")
+    public void testarEndPointIncomeStatsRecusaValoresNaoFinitos() throws Exception {
+        for (String bounds : new String[] { "1,NaN", "NaN", "1,Infinity", "-Infinity,1" }) {
+            mockMVC.perform(get("/clients/stats/income")
+                .param("bounds", bounds)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+        }
+        for (String bucketWidth : new String[] { "NaN", "Infinity", "1e309" }) {
+            mockMVC.perform(get("/clients/stats/income")
+                .param("bucketWidth", bucketWidth)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity());
+        }
+        // finita, mas enorme: uma faixa só, com limites finitos
+        mockMVC.perform(get("/clients/stats/income")
+            .param("bucketWidth", "1e308")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.histogram.length()").value(1))
+            .andExpect(jsonPath("$.histogram[0].to").value(1e308))
+            .andExpect(jsonPath("$.histogram[0].count").value(12));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/birthDate/ retorna a página de clientes nascidos no intervalo (base import.sql)")
+    public void testarEndPointFindByBirthDateBetweenRetornaClientesCorretos() throws Exception {
+        mockMVC.perform(get("/clients/birthDate/")
+            .param("start", "1955-01-01T00:00:00Z")
+            .param("end", "1958-01-01T00:00:00Z")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2))
+            .andExpect(jsonPath("$.content[*].name", contains("Chimamanda Adichie", "Yuval Noah Harari")));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/children/ retorna a página de clientes com pelo menos N filhos (base import.sql)")
+    public void testarEndPointFindByChildrenGreaterThanEqualRetornaClientesCorretos() throws Exception {
+        mockMVC.perform(get("/clients/children/")
+            .param("children", "3")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].name").value("Gilberto Gil"));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint DELETE /clients?incomeAbove= remove em conjunto, devolve a contagem e limpa o cache")
+    public void testarEndPointDeleteByIncomeAboveRemoveClientesELimpaCache() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            ids.add(service.insert(new ClientDTO(null, "Conta Antiga " + i, "5559990000" + i, 9000000.0, Instant.parse("2000-01-01T00:00:00Z"), 0)).getId());
+        }
+        // popula o cache de findById
+        mockMVC.perform(get("/clients/id/{id}", ids.get(0)).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        mockMVC.perform(delete("/clients").param("incomeAbove", "8000000").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.deleted").value(3))
+            .andExpect(jsonPath("$.chunks").value(1));
+
+        mockMVC.perform(get("/clients/id/{id}", ids.get(0)).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+        mockMVC.perform(get("/clients/search").param("name", "Conta Antiga").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint DELETE /clients sem incomeAbove é recusado")
+    public void testarEndPointDeleteByIncomeAboveSemParametroRetornaBadRequest() throws Exception {
+        mockMVC.perform(delete("/clients").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint PATCH /clients/{id} altera só os campos enviados, incrementa a versão e recusa versão antiga")
+    public void testarEndPointPatchAtualizaCamposEnviadosComVersao() throws Exception {
+        Long idExistente = 5L; // Gilberto Gil, income 2500.0
+        MvcResult antes = mockMVC.perform(get("/clients/id/{id}", idExistente).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn();
+        long versao = ((Number) JsonPath.read(antes.getResponse().getContentAsString(), "$.version")).longValue();
+
+        mockMVC.perform(patch("/clients/{id}", idExistente)
+            .content("{\"income\": 2600.0, \"version\": " + versao + "}")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Gilberto Gil"))
+            .andExpect(jsonPath("$.income").value(2600.0))
+            .andExpect(jsonPath("$.children").value(4))
+            .andExpect(jsonPath("$.version").value(versao + 1));
+
+        // o cache de findById não devolve o valor antigo
+        mockMVC.perform(get("/clients/id/{id}", idExistente).accept(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.income").value(2600.0));
+
+        // mesma versão de novo: outra escrita já passou por ela
+        mockMVC.perform(patch("/clients/{id}", idExistente)
+            .content("{\"income\": 2700.0, \"version\": " + versao + "}")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isConflict());
+
+        // restaura o valor original para os demais testes
+        mockMVC.perform(patch("/clients/{id}", idExistente)
+            .content("{\"income\": 2500.0}")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.income").value(2500.0));
+    }
+
+    @Test
+    @DisplayName("Verificar se os endpoints PATCH e PUT /clients/{id} retornam 404 para id inexistente e 409 para versão antiga")
+    public void testarEndPointPatchEPutRetornamNotFoundEConflict() throws Exception {
+        mockMVC.perform(patch("/clients/{id}", 999L)
+            .content("{\"income\": 1.0}")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+
+        // id 12 (Jorge Amado) não é alterado por outros testes: versão 0
+        mockMVC.perform(put("/clients/{id}", 12L)
+            .content("{\"name\": \"Jorge Amado\", \"cpf\": \"10204374161\", \"income\": 2500.0, \"children\": 0, \"version\": 99}")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint PUT /clients/{id} devolve a versão gravada e aceita essa versão no PUT seguinte")
+    public void testarEndPointPutDevolveVersaoGravada() throws Exception {
+        ClientDTO novo = service.insert(new ClientDTO(null, "Cliente Versao Put", "55544433324", 1000.0, Instant.parse("2000-01-01T00:00:00Z"), 0));
+        try {
+            MvcResult resposta = mockMVC.perform(put("/clients/{id}", novo.getId())
+                .content("{\"name\": \"Cliente Versao Put\", \"cpf\": \"55544433324\", \"income\": 1100.0, \"children\": 0, \"version\": 0}")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
+                .andReturn();
+            long versao = ((Number) JsonPath.read(resposta.getResponse().getContentAsString(), "$.version")).longValue();
+            assertEquals(versao, repository.findVersionById(novo.getId()).get().longValue());
+
+            // ler, alterar e devolver a versão recebida não dá 409
+            mockMVC.perform(put("/clients/{id}", novo.getId())
+                .content("{\"name\": \"Cliente Versao Put\", \"cpf\": \"55544433324\", \"income\": 1200.0, \"children\": 0, \"version\": " + versao + "}")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(versao + 1));
+            mockMVC.perform(get("/clients/id/{id}", novo.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "W/\"" + novo.getId() + "-" + (versao + 1) + "\""));
+        } finally {
+            service.delete(novo.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se get/clients/id/{id} devolve ETag e responde 304 até o cliente mudar de versão")
+    public void testarEndPointFindByIdETagResponde304AteMudarVersao() throws Exception {
+        ClientDTO novo = service.insert(new ClientDTO(null, "Cliente ETag Teste", "55544433322", 4321.0, Instant.parse("2000-01-01T00:00:00Z"), 0));
+        try {
+            String etag = mockMVC.perform(get("/clients/id/{id}", novo.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"" + novo.getId() + "-0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+            mockMVC.perform(get("/clients/id/{id}", novo.getId()).header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+            ClientDTO alteracao = new ClientDTO();
+            alteracao.setIncome(4322.0);
+            service.patch(novo.getId(), alteracao);
+
+            mockMVC.perform(get("/clients/id/{id}", novo.getId()).header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"" + novo.getId() + "-1\""))
+                .andExpect(jsonPath("$.income").value(4322.0));
+        } finally {
+            service.delete(novo.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se get/clients/ devolve ETag da página e responde 304 até a página mudar")
+    public void testarEndPointListarTodosETagResponde304AteMudarPagina() throws Exception {
+        String etag = mockMVC.perform(get("/clients/").param("linesPerPage", "3").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("ETag"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMVC.perform(get("/clients/").param("linesPerPage", "3").header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // outra página, outro ETag
+        mockMVC.perform(get("/clients/").param("linesPerPage", "3").param("page", "1").header("If-None-Match", etag)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        // um cliente a mais muda o total de elementos
+        ClientDTO novo = service.insert(new ClientDTO(null, "Cliente ETag Pagina", "55544433323", 4321.0, Instant.parse("2000-01-01T00:00:00Z"), 0));
+        try {
+            mockMVC.perform(get("/clients/").param("linesPerPage", "3").header("If-None-Match", etag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+        } finally {
+            service.delete(novo.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Verificar se get/clients/ negocia o envelope compacto em JSON, CBOR e Smile e mantém o JSON padrão")
+    public void testarEndPointListarTodosNegociaFormatosCompactos() throws Exception {
+        // sem Accept: JSON com a Page completa
+        mockMVC.perform(get("/clients/").param("linesPerPage", "3"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.pageable").exists());
+
+        mockMVC.perform(get("/clients/").param("linesPerPage", "3").accept("application/vnd.iftm.compact+json"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/vnd.iftm.compact+json"))
+            .andExpect(jsonPath("$.content.length()").value(3))
+            .andExpect(jsonPath("$.page").value(0))
+            .andExpect(jsonPath("$.size").value(3))
+            .andExpect(jsonPath("$.totalElements").exists())
+            .andExpect(jsonPath("$.pageable").doesNotExist())
+            .andExpect(jsonPath("$.sort").doesNotExist());
+
+        byte[] cbor = mockMVC.perform(get("/clients/").param("linesPerPage", "3").accept("application/cbor"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/cbor"))
+            .andReturn().getResponse().getContentAsByteArray();
+        JsonNode pagina = new ObjectMapper(
+            new CBORFactory()).readTree(cbor);
+        assertEquals(3, pagina.get("content").size());
+        assertNull(pagina.get("pageable"));
+
+        byte[] smile = mockMVC.perform(get("/clients/id/{id}", 12L).accept("application/x-jackson-smile"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-jackson-smile"))
+            .andReturn().getResponse().getContentAsByteArray();
+        JsonNode cliente = new ObjectMapper(
+            new SmileFactory()).readTree(smile);
+        assertEquals("Jorge Amado", cliente.get("name").asText());
+    }
+
+    @Test
+    @DisplayName("Verificar se get/clients/export/snapshot serve a cópia em gzip, descomprime para quem não aceita gzip e responde 304")
+    public void testarEndPointExportSnapshotServeArquivoComprimido() throws Exception {
+        ClientExportSnapshot.Snapshot snapshot = snapshots.refresh();
+        long total = repository.count();
+
+        byte[] gzip = mockMVC.perform(get("/clients/export/snapshot").header("Accept-Encoding", "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().longValue("Content-Length", snapshot.getSize()))
+            .andExpect(header().string("ETag", snapshot.getETag()))
+            .andReturn().getResponse().getContentAsByteArray();
+        String ndjson = new String(new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes(),
+            StandardCharsets.UTF_8);
+        assertEquals(total, ndjson.lines().count());
+
+        mockMVC.perform(get("/clients/export/snapshot"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Content-Encoding"))
+            .andExpect(header().string("ETag", snapshot.getETag()))
+            .andExpect(content().bytes(ndjson.getBytes(StandardCharsets.UTF_8)));
+        // o mesmo ETag para as duas codificações: tem de ser fraco
+        assertTrue(snapshot.getETag().startsWith("W/"));
+
+        mockMVC.perform(get("/clients/export/snapshot").header("If-None-Match", snapshot.getETag()))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint /actuator/info relata as configurações efetivas do banco")
+    public void testarEndPointInfoRelataConfiguracoesDoBanco() throws Exception {
+        mockMVC.perform(get("/actuator/info"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.database.url", startsWith("jdbc:h2:mem:")))
+            .andExpect(jsonPath("$.database.jdbcBatchSize").value(50))
+            .andExpect(jsonPath("$.database.orderInserts").value(true))
+            .andExpect(jsonPath("$.database.poolMaximumSize").exists());
+    }
+
+    @Test
+    @DisplayName("Verificar se get/clients/query combina faixas, prefixo de cpf e trecho do nome em uma consulta (base import.sql)")
+    public void testarEndPointQueryCombinaFiltros() throws Exception {
+        // income 1000..3000, nascidos a partir de 1990, ao menos 1 filho: ids 1 e 2
+        mockMVC.perform(get("/clients/query")
+            .param("minIncome", "1000")
+            .param("maxIncome", "3000")
+            .param("birthStart", "1990-01-01T00:00:00Z")
+            .param("minChildren", "1")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(2))
+            .andExpect(jsonPath("$.content[*].id", contains(1, 2)));
+
+        mockMVC.perform(get("/clients/query")
+            .param("cpf", "106.192")
+            .param("name", "RAMOS")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(1))
+            .andExpect(jsonPath("$.content[0].id").value(2));
+
+        mockMVC.perform(get("/clients/query")
+            .param("name", "%")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    /*
+     * Planos (EXPLAIN do H2) das combinações de filtro mais comuns, no formato
+     * que o Hibernate gera; cada uma precisa usar um dos índices compostos de tb_client.
+     */
+    @Test
+    @DisplayName("Verificar se as combinações de filtro de /clients/query usam os índices compostos (EXPLAIN)")
+    public void testarPlanosDeConsultaUsamIndicesCompostos() throws Exception {
+        Map<String, String> consultas = new LinkedHashMap<>();
+        consultas.put("income", "SELECT * FROM tb_client WHERE income BETWEEN 2000.0 AND 5000.0 ORDER BY name");
+        consultas.put("income+birthDate+children", "SELECT * FROM tb_client WHERE income BETWEEN 2000.0 AND 5000.0"
+            + " AND birth_date >= TIMESTAMP WITH TIME ZONE '1950-01-01 00:00:00Z' AND children >= 1 ORDER BY name");
+        consultas.put("birthDate+children", "SELECT * FROM tb_client WHERE birth_date BETWEEN TIMESTAMP WITH TIME ZONE '1950-01-01 00:00:00Z'"
+            + " AND TIMESTAMP WITH TIME ZONE '1990-01-01 00:00:00Z' AND children >= 1 ORDER BY name");
+        consultas.put("stats income", "SELECT COUNT(*), SUM(income), MIN(income), MAX(income), AVG(income) FROM tb_client"
+            + " WHERE income BETWEEN 2000.0 AND 5000.0 AND children >= 1");
+        consultas.put("cpf prefix", "SELECT * FROM tb_client WHERE cpf LIKE '106%' ORDER BY name");
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, String> consulta : consultas.entrySet()) {
+                String plano;
+                try (ResultSet rs = statement.executeQuery("EXPLAIN " + consulta.getValue())) {
+                    rs.next();
+                    plano = rs.getString(1);
+                }
+                assertTrue(plano.toUpperCase().contains("IDX_CLIENT_"),
+                    consulta.getKey() + " não usa índice: " + plano.replaceAll("\\s+", " "));
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.iftm.client.resources;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,7 +18,10 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.iftm.client.dto.BatchInsertResultDTO;
+import com.iftm.client.dto.BatchItemResultDTO;
 import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.CursorPageDTO;
 import com.iftm.client.entities.Client;
 import com.iftm.client.services.ClientService;
 
@@ -262,4 +266,60 @@ public class ClientResourceTest {
         mockMVC.perform(delete("/clients/{id}", idInexistente))
             .andExpect(status().isNotFound());
     }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/keyset retorna a página e o cursor da próxima (mock)")
+    public void testarEndPointFindAllKeysetRetornaPaginaComCursorMockado() throws Exception {
+        List<ClientDTO> lista = List.of(
+            new ClientDTO(new Client(1L, "Cliente 1", "111", 2000.0, Instant.now(), 0)),
+            new ClientDTO(new Client(2L, "Cliente 2", "222", 3000.0, Instant.now(), 1))
+        );
+        CursorPageDTO<ClientDTO> pagina = new CursorPageDTO<>(lista, 2, "proximo");
+        Mockito.when(service.findAllKeyset(Mockito.any())).thenReturn(pagina);
+        ResultActions result = mockMVC.perform(get("/clients/keyset").param("linesPerPage", "2").accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(2))
+            .andExpect(jsonPath("$.hasNext").value(true))
+            .andExpect(jsonPath("$.nextCursor").value("proximo"));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint POST /clients/batch retorna o resultado de cada linha (mock)")
+    public void testarEndPointInsertAllRetornaResultadoPorLinhaMockado() throws Exception {
+        BatchInsertResultDTO resultado = new BatchInsertResultDTO(List.of(
+            new BatchItemResultDTO(0, BatchItemResultDTO.CREATED, 20L, null),
+            new BatchItemResultDTO(1, BatchItemResultDTO.FAILED, null, "erro")
+        ));
+        Mockito.when(service.insertAll(Mockito.any())).thenReturn(resultado);
+        ResultActions result = mockMVC.perform(post("/clients/batch")
+            .content("[{\"name\":\"Cliente 1\"},{\"name\":\"Cliente 2\"}]")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.APPLICATION_JSON));
+        result.andExpect(status().isOk())
+            .andExpect(jsonPath("$.succeeded").value(1))
+            .andExpect(jsonPath("$.failed").value(1))
+            .andExpect(jsonPath("$.items[0].id").value(20));
+    }
+
+    @Test
+    @DisplayName("Verificar se no modo blocking o endpoint get/clients/id/{id} responde sem abrir requisição assíncrona (mock)")
+    public void testarEndPointFindByIdModoBlockingRespondeSemAsyncMockado() throws Exception {
+        ClientDTO cliente = new ClientDTO(new Client(7L, "Jose Saramago", "10239254871", 5000.0, Instant.now(), 0));
+        Mockito.when(service.findById(7L)).thenReturn(cliente);
+        mockMVC.perform(get("/clients/id/{id}", 7L).accept(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncNotStarted())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Jose Saramago"));
+    }
+
+    @Test
+    @DisplayName("Verificar se o endpoint get/clients/id/{id} responde 304 a um If-None-Match atual sem carregar o DTO (mock)")
+    public void testarEndPointFindByIdRetornaNotModifiedSemCarregarDtoMockado() throws Exception {
+        Mockito.when(service.findVersion(7L)).thenReturn(Optional.of(3L));
+        mockMVC.perform(get("/clients/id/{id}", 7L).header("If-None-Match", "\"7-3\"").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "W/\"7-3\""))
+            .andExpect(content().string(""));
+        Mockito.verify(service, Mockito.never()).findById(7L);
+    }
 }
@@ -0,0 +1,144 @@
+package com.iftm.client.resources;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.iftm.client.dto.ClientDTO;
+import com.iftm.client.dto.IncomeStatsDTO;
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.ClientService;
+import com.iftm.client.services.analytics.ClientColumnFilter;
+import com.iftm.client.services.analytics.ClientColumnStore;
+
+@SpringBootTest(properties = { "client.analytics.column-store.enabled=true", "client.analytics.parallelism=2",
+		"client.analytics.split-rows=4" })
+@AutoConfigureMockMvc
+public class ColumnStoreTest {
+
+	@Autowired
+	private MockMvc mockMVC;
+
+	@Autowired
+	private ClientService service;
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private ClientColumnStore columnStore;
+
+	@Test
+	@DisplayName("Verificar se get/clients/analytics/income (cópia colunar) dá os mesmos agregados do banco, inclusive depois de escritas")
+	public void testarColumnStoreConfereComAgregadosDoBanco() throws Exception {
+		List<ClientColumnFilter> filtros = List.of(
+			ClientColumnFilter.all(),
+			ClientColumnFilter.of(4000.0, 12000.0, null, null, null, null),
+			ClientColumnFilter.of(null, null, Instant.parse("1955-01-01T00:00:00Z"), Instant.parse("1958-01-01T00:00:00Z"), null, null),
+			ClientColumnFilter.of(null, null, null, null, 3, null),
+			ClientColumnFilter.of(2000.0, null, null, Instant.parse("2000-01-01T00:00:00Z"), 0, 2),
+			ClientColumnFilter.of(null, 1.0, null, null, null, null));
+		assertTrue(columnStore.isLoaded());
+		conferirColumnStore(filtros);
+
+		ClientDTO novo = service.insert(new ClientDTO(null, "Cliente Coluna Teste", "55566677788", 7777.0, Instant.parse("1957-06-01T00:00:00Z"), 3));
+		ClientDTO nulo = service.insert(new ClientDTO(null, "Cliente Coluna Nula", "55566677789", null, null, null));
+		try {
+			conferirColumnStore(filtros);
+			assertEquals(1, columnStore.countByCpf("55566677788"));
+
+			ClientDTO alteracao = new ClientDTO();
+			alteracao.setIncome(8888.0);
+			alteracao.setChildren(1);
+			service.patch(novo.getId(), alteracao);
+			conferirColumnStore(filtros);
+
+			mockMVC.perform(get("/clients/analytics/income")
+				.param("minIncome", "8000")
+				.param("maxIncome", "9000")
+				.param("birthStart", "1957-01-01T00:00:00Z")
+				.param("birthEnd", "1957-12-31T00:00:00Z")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(1))
+				.andExpect(jsonPath("$.sum").value(8888.0));
+		} finally {
+			service.delete(novo.getId());
+			service.delete(nulo.getId());
+		}
+		conferirColumnStore(filtros);
+		assertNull(columnStore.nameOf(novo.getId()));
+	}
+
+	private void conferirColumnStore(List<ClientColumnFilter> filtros) {
+		for (ClientColumnFilter filtro : filtros) {
+			IncomeStatsDTO banco = repository.incomeStats(filtro.toSpecification());
+			IncomeStatsDTO colunas = columnStore.incomeStats(filtro);
+			assertEquals(banco.getCount(), colunas.getCount());
+			assertEquals(banco.getCount().longValue(), columnStore.count(filtro));
+			assertEquals(banco.getMin(), colunas.getMin());
+			assertEquals(banco.getMax(), colunas.getMax());
+			if (banco.getSum() == null) {
+				assertNull(colunas.getSum());
+				assertNull(colunas.getAvg());
+			} else {
+				assertEquals(banco.getSum(), colunas.getSum(), 1e-6);
+				assertEquals(banco.getAvg(), colunas.getAvg(), 1e-6);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Verificar se get/clients/analytics/query divide a varredura entre threads e devolve as páginas por nome iguais ao banco")
+	public void testarEndPointAnalyticsQueryParalelaOrdenaPorNome() throws Exception {
+		// income >= 2000, nascidos até 2000 e de 0 a 2 filhos; com split-rows=4 a varredura é dividida
+		Instant fim = Instant.parse("2000-01-01T00:00:00Z");
+		List<String> esperado = repository.findAll(PageRequest.of(0, 1000)).getContent().stream()
+			.filter(c -> c.getIncome() != null && c.getIncome() >= 2000.0)
+			.filter(c -> c.getBirthDate() != null && !c.getBirthDate().isAfter(fim))
+			.filter(c -> c.getChildren() != null && c.getChildren() >= 0 && c.getChildren() <= 2)
+			.map(Client::getName)
+			.sorted()
+			.collect(Collectors.toList());
+		assertTrue(esperado.size() > 3);
+
+		for (int pagina = 0; pagina * 3 < esperado.size(); pagina++) {
+			mockMVC.perform(get("/clients/analytics/query")
+				.param("minIncome", "2000")
+				.param("birthEnd", "2000-01-01T00:00:00Z")
+				.param("minChildren", "0")
+				.param("maxChildren", "2")
+				.param("page", String.valueOf(pagina))
+				.param("linesPerPage", "3")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(esperado.size()))
+				.andExpect(jsonPath("$.content[*].name").value(contains(
+					esperado.subList(pagina * 3, Math.min(pagina * 3 + 3, esperado.size())).toArray())));
+		}
+
+		mockMVC.perform(get("/clients/analytics/query")
+			.param("page", "5000")
+			.param("linesPerPage", "12")
+			.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isUnprocessableEntity());
+	}
+}
@@ -0,0 +1,104 @@
+package com.iftm.client.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.iftm.client.services.cache.SingleFlight;
+
+@SpringBootTest(properties = { "client.rate-limit.enabled=true", "client.rate-limit.requests-per-second=0.1",
+		"client.rate-limit.burst=3" })
+@AutoConfigureMockMvc
+public class RateLimitAndCoalescingTest {
+
+	@Autowired
+	private MockMvc mockMVC;
+
+	@Test
+	@DisplayName("Verificar se o limite por chamador (IP) responde 429 com Retry-After sem afetar outro chamador")
+	public void testarLimitePorChamadorRetorna429() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			mockMVC.perform(get("/clients/id/{id}", 12L).with(remoteAddr("10.0.0.1")).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		}
+		mockMVC.perform(get("/clients/id/{id}", 12L).with(remoteAddr("10.0.0.1")).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isTooManyRequests())
+			.andExpect(header().exists("Retry-After"))
+			.andExpect(jsonPath("$.error").value("Too many requests"));
+		// sem key-header configurado, um cabeçalho escolhido pelo cliente não abre um balde novo
+		mockMVC.perform(get("/clients/id/{id}", 12L).with(remoteAddr("10.0.0.1")).header("X-Client-Id", "outro")
+				.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isTooManyRequests());
+
+		mockMVC.perform(get("/clients/id/{id}", 12L).with(remoteAddr("10.0.0.2")).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk());
+	}
+
+	private static RequestPostProcessor remoteAddr(String addr) {
+		return request -> {
+			request.setRemoteAddr(addr);
+			return request;
+		};
+	}
+
+	@Test
+	@DisplayName("Verificar se chamadas concorrentes com a mesma chave compartilham uma única carga")
+	public void testarSingleFlightCompartilhaCargaEmAndamento() throws Exception {
+		SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+		AtomicInteger cargas = new AtomicInteger();
+		CountDownLatch emAndamento = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		Object resultado = new Object();
+		ExecutorService threads = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> primeira = threads.submit(() -> singleFlight.execute("cpf", () -> {
+				cargas.incrementAndGet();
+				emAndamento.countDown();
+				await(liberar);
+				return resultado;
+			}));
+			emAndamento.await(5, TimeUnit.SECONDS);
+			Future<Object> segunda = threads.submit(() -> singleFlight.execute("cpf", () -> {
+				cargas.incrementAndGet();
+				return new Object();
+			}));
+			// a segunda chamada chega enquanto a primeira ainda está carregando
+			Thread.sleep(200);
+			liberar.countDown();
+
+			assertSame(resultado, primeira.get(5, TimeUnit.SECONDS));
+			assertSame(resultado, segunda.get(5, TimeUnit.SECONDS));
+			assertEquals(1, cargas.get());
+			assertEquals(0, singleFlight.inFlight());
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
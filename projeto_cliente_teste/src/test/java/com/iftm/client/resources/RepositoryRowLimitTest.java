@@ -0,0 +1,48 @@
+package com.iftm.client.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.iftm.client.entities.Client;
+import com.iftm.client.repositories.ClientRepository;
+import com.iftm.client.services.exceptions.RowLimitExceededException;
+
+@SpringBootTest(properties = "client.repository.max-list-rows=10")
+public class RepositoryRowLimitTest {
+
+	@Autowired
+	private ClientRepository repository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	@DisplayName("Verificar se os métodos @RowLimited do repositório falham acima de client.repository.max-list-rows e os demais não")
+	public void testarRepositorioListaLimitadaEStream() {
+		// limite de 10 linhas nesta classe; a base tem 12 clientes
+		assertThrows(RowLimitExceededException.class, () -> repository.findClientBySalarioAcima(0.0));
+		assertThrows(RowLimitExceededException.class, () -> repository.findByIncomeGreaterThan(0.0));
+		// abaixo do limite o resultado vem da variante com Slice (findSliceByIncomeGreaterThan)
+		assertTrue(repository.findByIncomeGreaterThan(9000.0).stream().anyMatch(c -> c.getName().equals("Toni Morrison")));
+		// só os métodos marcados com @RowLimited: findAll herdado não é desviado
+		assertTrue(repository.findAll().size() > 10);
+		assertTrue(repository.findAll((root, query, cb) -> cb.conjunction()).size() > 10);
+		assertEquals(1, repository.findClientByChildrenGreaterThanEqualOrderByNameAsc(3).size());
+
+		Long total = transactionTemplate.execute(status -> {
+			try (Stream<Client> stream = repository.streamClientBySalarioAcima(0.0)) {
+				return stream.count();
+			}
+		});
+		assertTrue(total > 10);
+	}
+}
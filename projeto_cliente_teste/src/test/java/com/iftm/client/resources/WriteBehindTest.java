@@ -0,0 +1,138 @@
+package com.iftm.client.resources;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.iftm.client.services.writebehind.ClientWriteBehind;
+import com.jayway.jsonpath.JsonPath;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = { "client.write-behind.enabled=true", "client.write-behind.queue-capacity=4",
+		"client.write-behind.batch-size=100", "client.write-behind.max-delay-ms=60000",
+		"client.write-behind.journal-dir=" + WriteBehindTest.JOURNAL_DIR })
+@AutoConfigureMockMvc
+public class WriteBehindTest {
+
+	static final String JOURNAL_DIR = "target/write-behind-test";
+
+	@Autowired
+	private MockMvc mockMVC;
+
+	@Autowired
+	private ClientWriteBehind writeBehind;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	/*
+	 * Diário deixado por uma "execução anterior", lido na subida do contexto: uma linha nova,
+	 * uma de um cliente que já está no banco, uma já gravada (com a marca) e depois removida
+	 * e uma última linha cortada no meio.
+	 */
+	@BeforeAll
+	public static void escreverDiarioAnterior() throws Exception {
+		Path dir = Paths.get(JOURNAL_DIR);
+		if (Files.exists(dir)) {
+			try (Stream<Path> files = Files.walk(dir)) {
+				files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+		Files.createDirectories(dir);
+		Files.write(dir.resolve("clients-7.journal"), ("{\"id\":90001,\"name\":\"Diario Reaplicado\",\"cpf\":\"12345678901\","
+				+ "\"income\":1234.5,\"birthDate\":\"1990-01-01T00:00:00Z\",\"children\":1,\"version\":0}\n"
+				+ "{\"id\":12,\"name\":\"Jorge Amado\",\"cpf\":\"10204374161\",\"income\":2500.0,"
+				+ "\"birthDate\":\"1918-09-23T07:00:00Z\",\"children\":0,\"version\":0}\n"
+				+ "{\"id\":90003,\"name\":\"Gravado e Removido\",\"cpf\":\"12345678902\",\"income\":10.0,"
+				+ "\"birthDate\":\"1990-01-01T00:00:00Z\",\"children\":0,\"version\":0}\n"
+				+ "{\"flushed\":[90003]}\n"
+				+ "{\"id\":90002,\"name\":\"Cortad").getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	@DisplayName("Verificar se o diário deixado por uma execução anterior é gravado na subida, sem as linhas já gravadas")
+	public void testarDiarioReaplicadoNaSubida() throws Exception {
+		mockMVC.perform(get("/clients/id/{id}", 90001L).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value("Diario Reaplicado"))
+			.andExpect(jsonPath("$.income").value(1234.5));
+		mockMVC.perform(get("/clients/id/{id}", 90002L).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotFound());
+		// gravado, removido e com a marca no diário: não volta na subida
+		mockMVC.perform(get("/clients/id/{id}", 90003L).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotFound());
+		assertTrue(Files.notExists(Paths.get(JOURNAL_DIR, "clients-7.journal")));
+
+		mockMVC.perform(delete("/clients/{id}", 90001L)).andExpect(status().isNoContent());
+	}
+
+	@Test
+	@DisplayName("Verificar se POST /clients responde 202 com id, 429 com a fila cheia e grava o lote no flush")
+	public void testarWriteBehindAceitaRecusaEGravaEmLote() throws Exception {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			MvcResult result = mockMVC.perform(post("/clients")
+					.content("{\"name\":\"Lote Atrasado " + i + "\",\"cpf\":\"111.222.333-4" + i + "\",\"income\":999.0,"
+							+ "\"birthDate\":\"2001-01-01T00:00:00Z\",\"children\":0}")
+					.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isAccepted())
+				.andExpect(header().exists("Location"))
+				.andExpect(jsonPath("$.cpf").value("1112223334" + i))
+				.andExpect(jsonPath("$.version").value(0))
+				.andReturn();
+			ids.add(((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id")).longValue());
+		}
+		assertEquals(4, ids.stream().distinct().count());
+		assertEquals(4, writeBehind.getQueueDepth());
+		assertEquals(4.0, registry.get("client.write-behind.queue.depth").gauge().value());
+
+		mockMVC.perform(post("/clients")
+				.content("{\"name\":\"Lote Recusado\",\"cpf\":\"11122233349\",\"income\":999.0}")
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isTooManyRequests())
+			.andExpect(header().exists("Retry-After"));
+		// aceito, mas ainda não gravado
+		mockMVC.perform(get("/clients/id/{id}", ids.get(0)).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotFound());
+
+		assertTrue(writeBehind.flush(Duration.ofSeconds(10)));
+		assertEquals(0, writeBehind.getQueueDepth());
+		assertEquals(0.0, registry.get("client.write-behind.journal.bytes").gauge().value());
+		assertTrue(registry.get("client.write-behind.flush").timer().count() >= 1);
+		for (int i = 0; i < ids.size(); i++) {
+			mockMVC.perform(get("/clients/id/{id}", ids.get(i)).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.name").value("Lote Atrasado " + i));
+		}
+
+		for (Long id : ids) {
+			mockMVC.perform(delete("/clients/{id}", id)).andExpect(status().isNoContent());
+		}
+	}
+}